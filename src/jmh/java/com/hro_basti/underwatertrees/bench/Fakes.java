@@ -0,0 +1,339 @@
+package com.hro_basti.underwatertrees.bench;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.Dispenser;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.Sapling;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.persistence.PersistentDataContainer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Lightweight stand-ins for the Bukkit objects the listener touches, so handlers can run outside a server.
+// Interfaces are implemented with dynamic proxies that answer only the methods the plugin calls; anything
+// else throws, so a benchmark never silently measures a path the fake does not model.
+// Blocks are allocated per lookup like CraftBlock, which keeps the allocation profile realistic;
+// the proxy dispatch itself adds a few ns per call, so compare runs against each other, not against a server.
+public final class Fakes {
+
+    private static final Map<Class<?>, Constructor<?>> PROXY_CTORS = new ConcurrentHashMap<>();
+
+    private Fakes() {
+    }
+
+    // Logger that drops everything (config warnings/stats would otherwise dominate)
+    public static Logger silentLogger() {
+        Logger logger = Logger.getLogger("UnderwaterTrees-bench");
+        logger.setUseParentHandlers(false);
+        logger.setLevel(Level.OFF);
+        return logger;
+    }
+
+    // Bukkit.createBlockData and friends go through the server singleton; it can only be set once per JVM
+    public static synchronized void installServer() {
+        if (Bukkit.getServer() != null) return;
+        Logger logger = silentLogger();
+        Bukkit.setServer(proxy(Server.class, (p, m, a) -> switch (m.getName()) {
+            case "getLogger" -> logger;
+            case "getName", "getVersion", "getBukkitVersion" -> "fake";
+            case "isPrimaryThread" -> true;
+            case "createBlockData" -> blockData((Material) a[0]);
+            default -> objectMethod(p, m, a, "Server");
+        }));
+    }
+
+    public static BlockData blockData(Material type) {
+        if (type == Material.DISPENSER) {
+            // Fake dispensers always face east
+            return proxy(org.bukkit.block.data.type.Dispenser.class, (p, m, a) -> switch (m.getName()) {
+                case "getMaterial" -> type;
+                case "getFacing" -> BlockFace.EAST;
+                case "isTriggered" -> false;
+                case "clone" -> p;
+                default -> objectMethod(p, m, a, "Dispenser");
+            });
+        }
+        if (!type.name().endsWith("_SAPLING")) {
+            return proxy(BlockData.class, (p, m, a) -> switch (m.getName()) {
+                case "getMaterial" -> type;
+                case "clone" -> p;
+                default -> objectMethod(p, m, a, "BlockData");
+            });
+        }
+        int[] stage = {0};
+        return proxy(Sapling.class, (p, m, a) -> switch (m.getName()) {
+            case "getMaterial" -> type;
+            case "getStage" -> stage[0];
+            case "setStage" -> {
+                stage[0] = (Integer) a[0];
+                yield null;
+            }
+            case "getMaximumStage" -> 1;
+            case "clone" -> p;
+            default -> objectMethod(p, m, a, "Sapling");
+        });
+    }
+
+    // Survival player; item stacks handed to it should be large enough that the hand never empties
+    public static Player player() {
+        UUID id = UUID.randomUUID();
+        return proxy(Player.class, (p, m, a) -> switch (m.getName()) {
+            case "getGameMode" -> GameMode.SURVIVAL;
+            case "getUniqueId" -> id;
+            case "getName" -> "bench";
+            default -> objectMethod(p, m, a, "Player");
+        });
+    }
+
+    // Item stack without a server-side delegate
+    public static final class FakeItemStack extends ItemStack {
+        private final Material type;
+        private int amount;
+
+        public FakeItemStack(Material type, int amount) {
+            this.type = type;
+            this.amount = amount;
+        }
+
+        @Override
+        public Material getType() {
+            return type;
+        }
+
+        @Override
+        public int getAmount() {
+            return amount;
+        }
+
+        @Override
+        public void setAmount(int amount) {
+            this.amount = amount;
+        }
+    }
+
+    // Flat block grid covering x/z in [0, size) from minY to maxY; everything outside reads as AIR
+    public static final class FakeWorld {
+        private final World world;
+        private final int size;
+        private final int minY;
+        private final int height;
+        private final Material[] types;
+        private final Map<Long, Chunk> chunks = new HashMap<>();
+        // Every fake dispenser in the world shares this nine-slot inventory
+        private final ItemStack[] dispenserSlots = new ItemStack[9];
+        private final Inventory dispenserInventory = proxy(Inventory.class, (p, m, a) -> switch (m.getName()) {
+            case "getItem" -> dispenserSlots[(Integer) a[0]];
+            case "setItem" -> {
+                dispenserSlots[(Integer) a[0]] = (ItemStack) a[1];
+                yield null;
+            }
+            case "getSize" -> dispenserSlots.length;
+            default -> objectMethod(p, m, a, "Inventory");
+        });
+
+        public FakeWorld(int size, int minY, int maxY) {
+            this.size = size;
+            this.minY = minY;
+            this.height = maxY - minY;
+            this.types = new Material[size * size * height];
+            Arrays.fill(types, Material.AIR);
+            UUID id = UUID.randomUUID();
+            this.world = proxy(World.class, (p, m, a) -> switch (m.getName()) {
+                case "getUID" -> id;
+                case "getName" -> "bench_world";
+                case "getMinHeight" -> minY;
+                case "getMaxHeight" -> maxY;
+                case "getBlockAt" -> block((Integer) a[0], (Integer) a[1], (Integer) a[2]);
+                case "getChunkAt" -> chunk((Integer) a[0], (Integer) a[1]);
+                case "isChunkLoaded" -> true;
+                case "getLoadedChunks" -> chunks.values().toArray(new Chunk[0]);
+                case "playSound" -> null;
+                default -> objectMethod(p, m, a, "World");
+            });
+        }
+
+        public World world() {
+            return world;
+        }
+
+        public Block block(int x, int y, int z) {
+            return proxy(Block.class, new BlockHandler(this, x, y, z));
+        }
+
+        public Material type(int x, int y, int z) {
+            int i = index(x, y, z);
+            return i < 0 ? Material.AIR : types[i];
+        }
+
+        public void set(int x, int y, int z, Material type) {
+            int i = index(x, y, z);
+            if (i >= 0) types[i] = type;
+        }
+
+        public void fill(int x0, int y0, int z0, int x1, int y1, int z1, Material type) {
+            for (int y = y0; y <= y1; y++) {
+                for (int z = z0; z <= z1; z++) {
+                    for (int x = x0; x <= x1; x++) set(x, y, z, type);
+                }
+            }
+        }
+
+        public ItemStack[] dispenserSlots() {
+            return dispenserSlots;
+        }
+
+        Object blockState(Object block, int x, int y, int z) {
+            if (type(x, y, z) != Material.DISPENSER) throw new UnsupportedOperationException("Block#getState on " + type(x, y, z));
+            return proxy(Dispenser.class, (p, m, a) -> switch (m.getName()) {
+                case "getInventory" -> dispenserInventory;
+                case "getBlock" -> block;
+                case "getType" -> Material.DISPENSER;
+                default -> objectMethod(p, m, a, "DispenserState");
+            });
+        }
+
+        public Chunk chunk(int cx, int cz) {
+            return chunks.computeIfAbsent(((long) cz << 32) | (cx & 0xFFFFFFFFL), k -> newChunk(cx, cz));
+        }
+
+        // Forget all persisted chunk data
+        public void clearChunks() {
+            chunks.clear();
+        }
+
+        private int index(int x, int y, int z) {
+            int ly = y - minY;
+            if (x < 0 || z < 0 || x >= size || z >= size || ly < 0 || ly >= height) return -1;
+            return (ly * size + z) * size + x;
+        }
+
+        private Chunk newChunk(int cx, int cz) {
+            PersistentDataContainer pdc = dataContainer();
+            return proxy(Chunk.class, (p, m, a) -> switch (m.getName()) {
+                case "getX" -> cx;
+                case "getZ" -> cz;
+                case "getWorld" -> world;
+                case "isLoaded" -> true;
+                case "getPersistentDataContainer" -> pdc;
+                default -> objectMethod(p, m, a, "Chunk");
+            });
+        }
+    }
+
+    private static final class BlockHandler implements InvocationHandler {
+        private final FakeWorld world;
+        private final int x;
+        private final int y;
+        private final int z;
+
+        BlockHandler(FakeWorld world, int x, int y, int z) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method m, Object[] a) {
+            return switch (m.getName()) {
+                case "getX" -> x;
+                case "getY" -> y;
+                case "getZ" -> z;
+                case "getWorld" -> world.world;
+                case "getType" -> world.type(x, y, z);
+                case "getBlockData" -> blockData(world.type(x, y, z));
+                case "getRelative" -> a.length == 1
+                        ? relative((BlockFace) a[0])
+                        : world.block(x + (Integer) a[0], y + (Integer) a[1], z + (Integer) a[2]);
+                case "setType" -> {
+                    world.set(x, y, z, (Material) a[0]);
+                    yield null;
+                }
+                case "setBlockData" -> {
+                    world.set(x, y, z, ((BlockData) a[0]).getMaterial());
+                    yield null;
+                }
+                case "getChunk" -> world.chunk(x >> 4, z >> 4);
+                case "getState" -> world.blockState(proxy, x, y, z);
+                case "getLocation" -> new Location(world.world, x, y, z);
+                case "equals" -> a[0] != null && Proxy.isProxyClass(a[0].getClass())
+                        && Proxy.getInvocationHandler(a[0]) instanceof BlockHandler o
+                        && o.world == world && o.x == x && o.y == y && o.z == z;
+                case "hashCode" -> (y * 31 + z) * 31 + x;
+                case "toString" -> "FakeBlock{" + x + "," + y + "," + z + "}";
+                default -> throw new UnsupportedOperationException("Block#" + m.getName());
+            };
+        }
+
+        private Block relative(BlockFace face) {
+            return world.block(x + face.getModX(), y + face.getModY(), z + face.getModZ());
+        }
+    }
+
+    private static PersistentDataContainer dataContainer() {
+        Map<NamespacedKey, Object> values = new HashMap<>();
+        return proxy(PersistentDataContainer.class, (p, m, a) -> switch (m.getName()) {
+            case "get" -> values.get((NamespacedKey) a[0]);
+            case "set" -> {
+                values.put((NamespacedKey) a[0], a[2]);
+                yield null;
+            }
+            case "remove" -> {
+                values.remove((NamespacedKey) a[0]);
+                yield null;
+            }
+            case "has" -> values.containsKey((NamespacedKey) a[0]);
+            case "isEmpty" -> values.isEmpty();
+            default -> objectMethod(p, m, a, "PersistentDataContainer");
+        });
+    }
+
+    // Identity semantics for equals/hashCode/toString; everything else is unsupported
+    private static Object objectMethod(Object proxy, Method m, Object[] a, String type) {
+        return switch (m.getName()) {
+            case "equals" -> proxy == a[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "Fake" + type + "@" + Integer.toHexString(System.identityHashCode(proxy));
+            default -> throw new UnsupportedOperationException(type + "#" + m.getName());
+        };
+    }
+
+    // Proxy constructors are cached; Proxy.newProxyInstance would add a class lookup to every block allocation
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        try {
+            Constructor<?> ctor = PROXY_CTORS.computeIfAbsent(type, t -> {
+                try {
+                    Object sample = Proxy.newProxyInstance(Fakes.class.getClassLoader(), new Class<?>[]{t}, (p, m, a) -> null);
+                    return sample.getClass().getConstructor(InvocationHandler.class);
+                } catch (NoSuchMethodException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            return (T) ctor.newInstance(handler);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create fake " + type.getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.hro_basti.underwatertrees.bench;
+
+import com.hro_basti.underwatertrees.io.Storage;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// In-memory stand-in for a slow (network-mounted) plugin directory: every operation sleeps for a
+// fixed latency before touching a map. Renames swap the map entry in one step, like an atomic move.
+public final class MemoryStorage implements Storage {
+
+    private final long latencyNanos;
+    private final Map<Path, byte[]> files = new ConcurrentHashMap<>();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong renames = new AtomicLong();
+
+    public MemoryStorage(long latencyNanos) {
+        this.latencyNanos = latencyNanos;
+    }
+
+    @Override
+    public boolean exists(Path file) {
+        stall();
+        return files.containsKey(file);
+    }
+
+    @Override
+    public void createDirectories(Path dir) {
+        stall();
+    }
+
+    @Override
+    public void write(Path file, byte[] content) {
+        stall();
+        files.put(file, content.clone());
+        writes.incrementAndGet();
+    }
+
+    @Override
+    public void replace(Path source, Path target) throws IOException {
+        stall();
+        byte[] content = files.remove(source);
+        if (content == null) throw new NoSuchFileException(source.toString());
+        files.put(target, content);
+        renames.incrementAndGet();
+    }
+
+    public byte[] read(Path file) {
+        return files.get(file);
+    }
+
+    public long getWrites() {
+        return writes.get();
+    }
+
+    public long getRenames() {
+        return renames.get();
+    }
+
+    private void stall() {
+        if (latencyNanos <= 0) return;
+        long due = System.nanoTime() + latencyNanos;
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0) LockSupport.parkNanos(wait);
+    }
+}
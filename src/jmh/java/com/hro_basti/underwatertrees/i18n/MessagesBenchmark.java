@@ -0,0 +1,104 @@
+package com.hro_basti.underwatertrees.i18n;
+
+import com.hro_basti.underwatertrees.bench.Fakes;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Message lookup with and without placeholder substitution for every bundled language, against the
+// previous per-placeholder String.replace pass as baseline. Component benchmarks need no server:
+// Adventure components are plain objects.
+// Run: ./gradlew jmh -Pjmh.includes=MessagesBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessagesBenchmark {
+
+    @Param({"ar_SA", "de_DE", "en_US", "es_ES", "fr_FR", "it_IT", "ja_JP", "ko_KR", "nl_NL", "pl_PL", "pt_PT", "tr_TR", "uk_UA", "zh_CN"})
+    public String lang;
+
+    private Path dataFolder;
+    private Messages messages;
+    private final Map<String, String> versions = Map.of("remote", "2.4.0", "local", "2.3.1");
+    private final Map<String, String> language = Map.of("code", "en_US");
+    private final Map<String, String> latency = Map.of("handler", "physics", "p50", "256 ns", "p99", "1.2 µs",
+            "max", "48.0 µs", "count", "123456");
+    private String latencyRaw;
+
+    @Setup
+    public void setup() throws IOException {
+        dataFolder = Files.createTempDirectory("underwatertrees-bench");
+        messages = new Messages(dataFolder.toFile(), Fakes.silentLogger(),
+                MessagesBenchmark.class.getClassLoader()::getResourceAsStream, lang);
+        latencyRaw = messages.get("stats.latency");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dataFolder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public String plain() {
+        return messages.get("command.reloaded");
+    }
+
+    @Benchmark
+    public String onePlaceholder() {
+        return messages.get("plugin.language_set", language);
+    }
+
+    @Benchmark
+    public String twoPlaceholders() {
+        return messages.get("update.available", versions);
+    }
+
+    @Benchmark
+    public String fivePlaceholders() {
+        return messages.get("stats.latency", latency);
+    }
+
+    // Previous implementation: one full replace pass per map entry
+    @Benchmark
+    public String fivePlaceholdersLegacy() {
+        String base = latencyRaw;
+        for (Map.Entry<String, String> e : latency.entrySet()) {
+            base = base.replace("{" + e.getKey() + "}", e.getValue());
+        }
+        return base;
+    }
+
+    @Benchmark
+    public Component plainComponent() {
+        return messages.component("command.no_permission", NamedTextColor.RED);
+    }
+
+    @Benchmark
+    public Component placeholderComponent() {
+        return messages.component("stats.latency", latency, NamedTextColor.GRAY);
+    }
+}
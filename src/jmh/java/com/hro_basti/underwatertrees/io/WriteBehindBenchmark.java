@@ -0,0 +1,87 @@
+package com.hro_basti.underwatertrees.io;
+
+import com.hro_basti.underwatertrees.bench.Fakes;
+import com.hro_basti.underwatertrees.bench.MemoryStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// What a config save costs the calling (main) thread on a slow plugin directory: a write plus a
+// rename inline, against handing the bytes to the write-behind queue. The store is in memory with
+// a fixed per-operation latency standing in for a network mount.
+// After each iteration the queue is flushed and the last content checked, so a coalescing bug
+// fails the run instead of producing a fast number.
+// Run: ./gradlew jmh -Pjmh.includes=WriteBehindBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBehindBenchmark {
+
+    @Param({"0", "200", "20000"})
+    public long latencyMicros;
+
+    private static final Path CONFIG = Path.of("plugins", "UnderwaterTrees", "config.yml");
+
+    private MemoryStorage store;
+    private WriteBehind direct;
+    private WriteBehind async;
+    private byte[][] contents;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        store = new MemoryStorage(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+        direct = WriteBehind.direct(store, Fakes.silentLogger());
+        async = WriteBehind.start(store, Fakes.silentLogger());
+        // A few distinct configs so the last write is recognisable
+        contents = new byte[8][];
+        for (int i = 0; i < contents.length; i++) {
+            contents[i] = ("language: en_US\nrevision: " + i + "\n").repeat(64).getBytes(StandardCharsets.UTF_8);
+        }
+        next = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        async.close();
+        byte[] last = contents[(next - 1 + contents.length) % contents.length];
+        if (next > 0 && !Arrays.equals(store.read(CONFIG), last)) {
+            throw new IllegalStateException("Last write lost after flush");
+        }
+        if (store.read(CONFIG.resolveSibling("config.yml.tmp")) != null) {
+            throw new IllegalStateException("Temp file left behind");
+        }
+    }
+
+    private byte[] nextContent() {
+        return contents[next++ % contents.length];
+    }
+
+    @Benchmark
+    public void saveInline() {
+        direct.write(CONFIG, nextContent());
+    }
+
+    @Benchmark
+    public void saveWriteBehind() {
+        async.write(CONFIG, nextContent());
+    }
+}
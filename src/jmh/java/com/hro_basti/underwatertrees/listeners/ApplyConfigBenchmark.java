@@ -0,0 +1,62 @@
+package com.hro_basti.underwatertrees.listeners;
+
+import com.hro_basti.underwatertrees.bench.Fakes;
+import com.hro_basti.underwatertrees.tracking.SaplingRegistry;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Rule compilation on reload with large soil/sapling sections (every entry enabled, all valid
+// material names). Run: ./gradlew jmh -Pjmh.includes=ApplyConfigBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApplyConfigBenchmark {
+
+    @Param({"10", "200", "1000"})
+    public int materials;
+
+    private YamlConfiguration cfg;
+    private UnderwaterSaplingsListener listener;
+
+    @Setup
+    public void setup() {
+        // Compilation prebuilds placement block data for every sapling
+        Fakes.installServer();
+        cfg = new YamlConfiguration();
+        cfg.set("log-stats", false);
+        cfg.set("log-detail", false);
+        int n = 0;
+        for (Material m : Material.values()) {
+            if (n == materials) break;
+            if (m.name().startsWith("LEGACY_")) continue;
+            cfg.set("soils." + m.name(), true);
+            cfg.set("saplings." + m.name(), true);
+            n++;
+        }
+        SaplingRegistry registry = new SaplingRegistry(new NamespacedKey("underwatertrees", "saplings"), Fakes.silentLogger());
+        listener = new UnderwaterSaplingsListener(Fakes.silentLogger(), registry);
+    }
+
+    @Benchmark
+    public SaplingRules applyConfig() {
+        listener.applyConfig(cfg);
+        return listener.getRules();
+    }
+}
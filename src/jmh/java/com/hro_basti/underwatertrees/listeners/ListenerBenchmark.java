@@ -0,0 +1,241 @@
+package com.hro_basti.underwatertrees.listeners;
+
+import com.hro_basti.underwatertrees.bench.Fakes;
+import com.hro_basti.underwatertrees.tracking.SaplingRegistry;
+import io.papermc.paper.event.block.BlockPreDispenseEvent;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPhysicsEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Event handler hot paths against a fake world: a 16x16 field of tracked saplings in chunk (0,0)
+// (dirt below, water above) and the same layout untracked in chunk (2,2).
+// Events are built per call, as the server does. Run: ./gradlew jmh -Pjmh.includes=ListenerBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListenerBenchmark {
+
+    static final int FIELD = 16;
+    static final int SAPLINGS = FIELD * FIELD;
+    static final int SOIL_Y = 40;
+    static final int SAPLING_Y = 41;
+    static final int WATER_TOP = 62;
+    static final int UNTRACKED_OFFSET = 32;
+
+    private Fakes.FakeWorld world;
+    private UnderwaterSaplingsListener listener;
+    private final BlockData water = Fakes.blockData(Material.WATER);
+
+    private final Block[] tracked = new Block[SAPLINGS];
+    private final Block[] trackedNeighbour = new Block[SAPLINGS];
+    private final Block[] trackedSoil = new Block[SAPLINGS];
+    private final Block[] untracked = new Block[SAPLINGS];
+    private final Block[] untrackedNeighbour = new Block[SAPLINGS];
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        Fakes.installServer();
+        world = new Fakes.FakeWorld(64, -64, 320);
+        listener = newListener(world);
+        for (int i = 0; i < SAPLINGS; i++) {
+            int x = i % FIELD, z = i / FIELD;
+            plantField(world, x, z);
+            plantField(world, x + UNTRACKED_OFFSET, z + UNTRACKED_OFFSET);
+            tracked[i] = world.block(x, SAPLING_Y, z);
+            trackedNeighbour[i] = tracked[i].getRelative(BlockFace.EAST);
+            trackedSoil[i] = tracked[i].getRelative(BlockFace.DOWN);
+            untracked[i] = world.block(x + UNTRACKED_OFFSET, SAPLING_Y, z + UNTRACKED_OFFSET);
+            untrackedNeighbour[i] = untracked[i].getRelative(BlockFace.EAST);
+            listener.getRegistry().track(tracked[i]);
+        }
+    }
+
+    static UnderwaterSaplingsListener newListener(Fakes.FakeWorld world) {
+        SaplingRegistry registry = new SaplingRegistry(new NamespacedKey("underwatertrees", "saplings"), Fakes.silentLogger());
+        UnderwaterSaplingsListener listener = new UnderwaterSaplingsListener(Fakes.silentLogger(), registry);
+        YamlConfiguration cfg = new YamlConfiguration();
+        cfg.set("log-stats", false);
+        cfg.set("protect-underwater-saplings", true);
+        cfg.set("require-water-above", true);
+        cfg.set("soils.DIRT", true);
+        cfg.set("saplings.OAK_SAPLING", true);
+        listener.applyConfig(cfg);
+        return listener;
+    }
+
+    static void plantField(Fakes.FakeWorld world, int x, int z) {
+        world.set(x, SOIL_Y, z, Material.DIRT);
+        world.set(x, SAPLING_Y, z, Material.OAK_SAPLING);
+        world.fill(x, SAPLING_Y + 1, z, x, WATER_TOP, z, Material.WATER);
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (SAPLINGS - 1);
+    }
+
+    // Physics next to a sapling the plugin never placed: index miss
+    @Benchmark
+    public boolean physicsUntracked() {
+        int i = next();
+        BlockPhysicsEvent e = new BlockPhysicsEvent(untracked[i], water, untrackedNeighbour[i]);
+        listener.onPhysics(e);
+        return e.isCancelled();
+    }
+
+    // Neighbour update on a tracked sapling within the same tick: answered from the memo
+    @Benchmark
+    public boolean physicsTrackedMemoised() {
+        int i = next();
+        BlockPhysicsEvent e = new BlockPhysicsEvent(tracked[i], water, trackedNeighbour[i]);
+        listener.onPhysics(e);
+        return e.isCancelled();
+    }
+
+    // Update from the soil below: memo bypassed, survival conditions evaluated every time
+    @Benchmark
+    public boolean physicsTrackedDependency() {
+        int i = next();
+        BlockPhysicsEvent e = new BlockPhysicsEvent(tracked[i], water, trackedSoil[i]);
+        listener.onPhysics(e);
+        return e.isCancelled();
+    }
+
+    // First update of a tracked sapling in a new tick: memo miss, evaluate and fill
+    @Benchmark
+    public boolean physicsTrackedNewTick() {
+        int i = next();
+        listener.nextTick();
+        BlockPhysicsEvent e = new BlockPhysicsEvent(tracked[i], water, trackedNeighbour[i]);
+        listener.onPhysics(e);
+        return e.isCancelled();
+    }
+
+    @Benchmark
+    public boolean fluidFlowUntracked() {
+        int i = next();
+        BlockFromToEvent e = new BlockFromToEvent(untrackedNeighbour[i], untracked[i]);
+        listener.onFluidFlow(e);
+        return e.isCancelled();
+    }
+
+    @Benchmark
+    public boolean fluidFlowTracked() {
+        int i = next();
+        BlockFromToEvent e = new BlockFromToEvent(trackedNeighbour[i], tracked[i]);
+        listener.onFluidFlow(e);
+        return e.isCancelled();
+    }
+
+    // Placement needs fresh water columns, so every invocation plants a whole 16x16 field and the
+    // field is reset outside the measurement
+    @State(Scope.Thread)
+    public static class PlaceState {
+        Fakes.FakeWorld world;
+        UnderwaterSaplingsListener listener;
+        Player player;
+        Fakes.FakeItemStack item;
+        final Block[] soil = new Block[SAPLINGS];
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Fakes.installServer();
+            world = new Fakes.FakeWorld(FIELD, -64, 320);
+            listener = newListener(world);
+            player = Fakes.player();
+            item = new Fakes.FakeItemStack(Material.OAK_SAPLING, Integer.MAX_VALUE);
+            for (int i = 0; i < SAPLINGS; i++) {
+                soil[i] = world.block(i % FIELD, SOIL_Y, i / FIELD);
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            world.fill(0, SOIL_Y, 0, FIELD - 1, SOIL_Y, FIELD - 1, Material.DIRT);
+            world.fill(0, SAPLING_Y, 0, FIELD - 1, WATER_TOP, FIELD - 1, Material.WATER);
+            world.clearChunks();
+            listener.getRegistry().clear();
+            item.setAmount(Integer.MAX_VALUE);
+        }
+    }
+
+    // Dispenser rows: dispenser at even x facing east into water at odd x, soil below the water
+    @State(Scope.Thread)
+    public static class DispenseState {
+        Fakes.FakeWorld world;
+        UnderwaterSaplingsListener listener;
+        final Block[] dispensers = new Block[SAPLINGS];
+        ItemStack item;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Fakes.installServer();
+            world = new Fakes.FakeWorld(FIELD * 2, -64, 320);
+            listener = newListener(world);
+            item = new Fakes.FakeItemStack(Material.OAK_SAPLING, 1);
+            for (int i = 0; i < SAPLINGS; i++) {
+                int x = (i % FIELD) * 2, z = i / FIELD;
+                world.set(x, SAPLING_Y, z, Material.DISPENSER);
+                dispensers[i] = world.block(x, SAPLING_Y, z);
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            for (int x = 1; x < FIELD * 2; x += 2) {
+                world.fill(x, SOIL_Y, 0, x, SOIL_Y, FIELD - 1, Material.DIRT);
+                world.fill(x, SAPLING_Y, 0, x, WATER_TOP, FIELD - 1, Material.WATER);
+            }
+            world.clearChunks();
+            listener.getRegistry().clear();
+            world.dispenserSlots()[0] = new Fakes.FakeItemStack(Material.OAK_SAPLING, Integer.MAX_VALUE);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAPLINGS)
+    public void dispenseUnderwater(DispenseState s, Blackhole bh) {
+        for (int i = 0; i < SAPLINGS; i++) {
+            BlockPreDispenseEvent e = new BlockPreDispenseEvent(s.dispensers[i], s.item, 0);
+            s.listener.onDispense(e);
+            bh.consume(e.isCancelled());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAPLINGS)
+    public void placeUnderwater(PlaceState s, Blackhole bh) {
+        for (int i = 0; i < SAPLINGS; i++) {
+            PlayerInteractEvent e = new PlayerInteractEvent(s.player, Action.RIGHT_CLICK_BLOCK, s.item, s.soil[i], BlockFace.UP);
+            s.listener.onPlaceUnderwater(e);
+            bh.consume(e.isCancelled());
+        }
+    }
+}
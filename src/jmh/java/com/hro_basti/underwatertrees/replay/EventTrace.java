@@ -0,0 +1,311 @@
+package com.hro_basti.underwatertrees.replay;
+
+import org.bukkit.Material;
+import org.bukkit.block.BlockFace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// A replayable stream of world edits and listener events, decoded into flat arrays so replay
+// measures the handlers, not the decoder.
+//
+// File format (.uwt), all integers LEB128 varints, signed ones zigzag encoded:
+//   "UWTR" version=1 size minY(s) maxY(s)
+//   materials: count, then per name: length + UTF-8 bytes
+//   records: kind byte, position as a signed delta to the previous record's position (x, y, z),
+//   then per kind:
+//     BLOCK    material index, height          set a column of blocks upwards (world setup and changes)
+//     TRACK    -                               register a plugin-placed sapling
+//     PHYSICS  source dx dy dz (s)             BlockPhysicsEvent at the position
+//     FLUID    face                            BlockFromToEvent into the position, from that face
+//     INTERACT face, material index            right-click on the position with a sapling
+//     TICK     ticks                           server ticks elapse (position unused)
+//   END byte
+// Neighbouring events encode in 5-7 bytes, so a minute-long incident fits in a few MB.
+public final class EventTrace {
+
+    public static final byte BLOCK = 0;
+    public static final byte TRACK = 1;
+    public static final byte PHYSICS = 2;
+    public static final byte FLUID = 3;
+    public static final byte INTERACT = 4;
+    public static final byte TICK = 5;
+    private static final int END = 0xFF;
+
+    private static final byte[] MAGIC = "UWTR".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    static final BlockFace[] FACES = {BlockFace.NORTH, BlockFace.EAST, BlockFace.SOUTH, BlockFace.WEST, BlockFace.UP, BlockFace.DOWN};
+
+    final int worldSize;
+    final int minY;
+    final int maxY;
+    final Material[] materials;
+    final int size;
+    final byte[] kind;
+    final int[] x;
+    final int[] y;
+    final int[] z;
+    // Kind-specific arguments: PHYSICS dx/dy/dz, FLUID face, INTERACT face/material, BLOCK material/height, TICK ticks
+    final int[] a;
+    final int[] b;
+    final int[] c;
+
+    private EventTrace(Builder builder) {
+        this.worldSize = builder.worldSize;
+        this.minY = builder.minY;
+        this.maxY = builder.maxY;
+        this.materials = builder.materials.toArray(new Material[0]);
+        this.size = builder.size;
+        this.kind = Arrays.copyOf(builder.kind, size);
+        this.x = Arrays.copyOf(builder.x, size);
+        this.y = Arrays.copyOf(builder.y, size);
+        this.z = Arrays.copyOf(builder.z, size);
+        this.a = Arrays.copyOf(builder.a, size);
+        this.b = Arrays.copyOf(builder.b, size);
+        this.c = Arrays.copyOf(builder.c, size);
+    }
+
+    public static Builder builder(int worldSize, int minY, int maxY) {
+        return new Builder(worldSize, minY, maxY);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Records that reach a listener handler (physics, fluid, interact)
+    public int eventCount() {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (kind[i] >= PHYSICS && kind[i] <= INTERACT) n++;
+        }
+        return n;
+    }
+
+    public static final class Builder {
+        private final int worldSize;
+        private final int minY;
+        private final int maxY;
+        private final List<Material> materials = new ArrayList<>();
+        private final Map<Material, Integer> materialIds = new HashMap<>();
+        private int size;
+        private byte[] kind = new byte[1024];
+        private int[] x = new int[1024];
+        private int[] y = new int[1024];
+        private int[] z = new int[1024];
+        private int[] a = new int[1024];
+        private int[] b = new int[1024];
+        private int[] c = new int[1024];
+
+        private Builder(int worldSize, int minY, int maxY) {
+            this.worldSize = worldSize;
+            this.minY = minY;
+            this.maxY = maxY;
+        }
+
+        public Builder block(int x, int y, int z, Material type) {
+            return column(x, y, z, type, 1);
+        }
+
+        public Builder column(int x, int y, int z, Material type, int height) {
+            return add(BLOCK, x, y, z, material(type), height, 0);
+        }
+
+        public Builder track(int x, int y, int z) {
+            return add(TRACK, x, y, z, 0, 0, 0);
+        }
+
+        public Builder physics(int x, int y, int z, int sourceDx, int sourceDy, int sourceDz) {
+            return add(PHYSICS, x, y, z, sourceDx, sourceDy, sourceDz);
+        }
+
+        // Fluid flowing into (x, y, z) from the neighbour on the given face
+        public Builder fluid(int x, int y, int z, BlockFace from) {
+            return add(FLUID, x, y, z, face(from), 0, 0);
+        }
+
+        public Builder interact(int x, int y, int z, BlockFace face, Material item) {
+            return add(INTERACT, x, y, z, face(face), material(item), 0);
+        }
+
+        public Builder tick(int ticks) {
+            return add(TICK, 0, 0, 0, ticks, 0, 0);
+        }
+
+        public EventTrace build() {
+            return new EventTrace(this);
+        }
+
+        private int material(Material type) {
+            return materialIds.computeIfAbsent(type, t -> {
+                materials.add(t);
+                return materials.size() - 1;
+            });
+        }
+
+        private static int face(BlockFace face) {
+            for (int i = 0; i < FACES.length; i++) {
+                if (FACES[i] == face) return i;
+            }
+            throw new IllegalArgumentException("Unsupported face " + face);
+        }
+
+        private Builder add(byte k, int px, int py, int pz, int pa, int pb, int pc) {
+            if (size == kind.length) {
+                int n = size * 2;
+                kind = Arrays.copyOf(kind, n);
+                x = Arrays.copyOf(x, n);
+                y = Arrays.copyOf(y, n);
+                z = Arrays.copyOf(z, n);
+                a = Arrays.copyOf(a, n);
+                b = Arrays.copyOf(b, n);
+                c = Arrays.copyOf(c, n);
+            }
+            kind[size] = k;
+            x[size] = px;
+            y[size] = py;
+            z[size] = pz;
+            a[size] = pa;
+            b[size] = pb;
+            c[size] = pc;
+            size++;
+            return this;
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            write(out);
+        }
+    }
+
+    public void write(OutputStream out) throws IOException {
+        out.write(MAGIC);
+        varint(out, VERSION);
+        varint(out, worldSize);
+        svarint(out, minY);
+        svarint(out, maxY);
+        varint(out, materials.length);
+        for (Material m : materials) {
+            byte[] name = m.name().getBytes(StandardCharsets.UTF_8);
+            varint(out, name.length);
+            out.write(name);
+        }
+        int px = 0, py = 0, pz = 0;
+        for (int i = 0; i < size; i++) {
+            out.write(kind[i]);
+            if (kind[i] == TICK) {
+                varint(out, a[i]);
+                continue;
+            }
+            svarint(out, x[i] - px);
+            svarint(out, y[i] - py);
+            svarint(out, z[i] - pz);
+            px = x[i];
+            py = y[i];
+            pz = z[i];
+            switch (kind[i]) {
+                case BLOCK -> {
+                    varint(out, a[i]);
+                    varint(out, b[i]);
+                }
+                case PHYSICS -> {
+                    svarint(out, a[i]);
+                    svarint(out, b[i]);
+                    svarint(out, c[i]);
+                }
+                case FLUID -> varint(out, a[i]);
+                case INTERACT -> {
+                    varint(out, a[i]);
+                    varint(out, b[i]);
+                }
+                default -> {
+                }
+            }
+        }
+        out.write(END);
+    }
+
+    public static EventTrace read(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            return read(in);
+        }
+    }
+
+    public static EventTrace read(InputStream in) throws IOException {
+        byte[] magic = in.readNBytes(MAGIC.length);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not an event trace");
+        int version = varint(in);
+        if (version != VERSION) throw new IOException("Unsupported trace version " + version);
+        Builder builder = new Builder(varint(in), svarint(in), svarint(in));
+        int materialCount = varint(in);
+        Material[] materials = new Material[materialCount];
+        for (int i = 0; i < materialCount; i++) {
+            String name = new String(in.readNBytes(varint(in)), StandardCharsets.UTF_8);
+            materials[i] = Material.matchMaterial(name);
+            if (materials[i] == null) throw new IOException("Unknown material " + name);
+        }
+        int px = 0, py = 0, pz = 0;
+        while (true) {
+            int k = in.read();
+            if (k < 0) throw new EOFException("Trace ends without END record");
+            if (k == END) break;
+            if (k == TICK) {
+                builder.tick(varint(in));
+                continue;
+            }
+            px += svarint(in);
+            py += svarint(in);
+            pz += svarint(in);
+            switch (k) {
+                case BLOCK -> builder.column(px, py, pz, materials[varint(in)], varint(in));
+                case TRACK -> builder.track(px, py, pz);
+                case PHYSICS -> builder.physics(px, py, pz, svarint(in), svarint(in), svarint(in));
+                case FLUID -> builder.fluid(px, py, pz, FACES[varint(in)]);
+                case INTERACT -> builder.interact(px, py, pz, FACES[varint(in)], materials[varint(in)]);
+                default -> throw new IOException("Unknown record kind " + k);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void varint(OutputStream out, int v) throws IOException {
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    private static void svarint(OutputStream out, int v) throws IOException {
+        varint(out, (v << 1) ^ (v >> 31));
+    }
+
+    private static int varint(InputStream in) throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new EOFException();
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static int svarint(InputStream in) throws IOException {
+        int v = varint(in);
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
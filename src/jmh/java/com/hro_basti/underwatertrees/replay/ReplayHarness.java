@@ -0,0 +1,245 @@
+package com.hro_basti.underwatertrees.replay;
+
+import com.hro_basti.underwatertrees.bench.Fakes;
+import com.hro_basti.underwatertrees.listeners.UnderwaterSaplingsListener;
+import com.hro_basti.underwatertrees.stats.HandlerStats;
+import com.hro_basti.underwatertrees.stats.LatencyHistogram;
+import com.hro_basti.underwatertrees.tracking.SaplingRegistry;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPhysicsEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+// Headless load simulator: replays an event trace (captured file or generated scenario) against
+// UnderwaterSaplingsListener on the fake world from the benchmarks and reports throughput,
+// cancellations, handler latency and GC pressure. Macro-level companion to the JMH benchmarks:
+// it shows how bursts behave (memo churn, allocation, tail latency), not per-call cost.
+//
+//   ./gradlew replay --args="--scenario monument-drain --scale 8"
+//   ./gradlew replay --args="--scenario farm-growth --tps 20 --save farm.uwt"
+//   ./gradlew replay --args="--trace incident.uwt --rate 200000 --repeat 5"
+//
+// --rate paces handler events per second, --tps paces TICK records (20 = real time); 0 replays as
+// fast as possible. Timings include the fakes' proxy dispatch, so compare runs with each other.
+public final class ReplayHarness {
+
+    private ReplayHarness() {
+    }
+
+    record Options(String scenario, int scale, long seed, Path trace, Path save, double rate, double tps,
+                   int warmup, int repeat) {
+
+        static Options parse(String[] args) {
+            String scenario = "monument-drain";
+            int scale = 4;
+            long seed = 42L;
+            Path trace = null;
+            Path save = null;
+            double rate = 0;
+            double tps = 0;
+            int warmup = 2;
+            int repeat = 3;
+            for (int i = 0; i < args.length; i++) {
+                String v = i + 1 < args.length ? args[i + 1] : null;
+                switch (args[i]) {
+                    case "--scenario" -> scenario = v;
+                    case "--scale" -> scale = Integer.parseInt(v);
+                    case "--seed" -> seed = Long.parseLong(v);
+                    case "--trace" -> trace = Path.of(v);
+                    case "--save" -> save = Path.of(v);
+                    case "--rate" -> rate = Double.parseDouble(v);
+                    case "--tps" -> tps = Double.parseDouble(v);
+                    case "--warmup" -> warmup = Integer.parseInt(v);
+                    case "--repeat" -> repeat = Integer.parseInt(v);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]
+                            + "; options: --scenario " + TraceScenarios.NAMES + " --scale --seed --trace --save --rate --tps --warmup --repeat");
+                }
+                i++;
+            }
+            return new Options(scenario, scale, seed, trace, save, rate, tps, warmup, repeat);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options o = Options.parse(args);
+        EventTrace trace = o.trace() != null ? EventTrace.read(o.trace()) : TraceScenarios.generate(o.scenario(), o.scale(), o.seed());
+        String name = o.trace() != null ? o.trace().getFileName().toString() : o.scenario() + " x" + o.scale();
+        if (o.save() != null) {
+            trace.write(o.save());
+            System.out.println("Saved " + trace.size() + " records to " + o.save());
+        }
+        Fakes.installServer();
+        for (int i = 0; i < o.warmup(); i++) new Replay(trace, 0, 0).run();
+        for (int i = 0; i < o.repeat(); i++) {
+            Replay r = new Replay(trace, o.rate(), o.tps());
+            r.run();
+            r.report(name, System.out);
+        }
+    }
+
+    // One pass over the trace on a fresh world, listener and registry
+    static final class Replay {
+        private final EventTrace trace;
+        private final long nanosPerEvent;
+        private final long nanosPerTick;
+        private final Fakes.FakeWorld world;
+        private final UnderwaterSaplingsListener listener;
+        private final Player player = Fakes.player();
+        private final Map<Material, BlockData> data = new EnumMap<>(Material.class);
+        private final Map<Material, Fakes.FakeItemStack> items = new EnumMap<>(Material.class);
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final long[] dispatched = new long[EventTrace.TICK + 1];
+        private final long[] cancelled = new long[EventTrace.TICK + 1];
+        private long ticks;
+        private long wallNanos;
+        private long busyNanos;
+        private long allocated;
+        private long gcCount;
+        private long gcMillis;
+
+        Replay(EventTrace trace, double rate, double tps) {
+            this.trace = trace;
+            this.nanosPerEvent = rate > 0 ? (long) (1e9 / rate) : 0;
+            this.nanosPerTick = tps > 0 ? (long) (1e9 / tps) : 0;
+            this.world = new Fakes.FakeWorld(trace.worldSize, trace.minY, trace.maxY);
+            SaplingRegistry registry = new SaplingRegistry(new NamespacedKey("underwatertrees", "saplings"), Fakes.silentLogger());
+            this.listener = new UnderwaterSaplingsListener(Fakes.silentLogger(), registry);
+            YamlConfiguration cfg = new YamlConfiguration();
+            cfg.set("log-stats", false);
+            cfg.set("protect-underwater-saplings", true);
+            cfg.set("require-water-above", true);
+            cfg.set("soils.DIRT", true);
+            cfg.set("saplings.OAK_SAPLING", true);
+            listener.applyConfig(cfg);
+        }
+
+        void run() {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long gcCount0 = gcCount(), gcMillis0 = gcMillis();
+            long alloc0 = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            long events = 0;
+            for (int i = 0; i < trace.size; i++) {
+                byte kind = trace.kind[i];
+                int x = trace.x[i], y = trace.y[i], z = trace.z[i];
+                switch (kind) {
+                    case EventTrace.BLOCK -> world.fill(x, y, z, x, y + trace.b[i] - 1, z, trace.materials[trace.a[i]]);
+                    case EventTrace.TRACK -> listener.getRegistry().track(world.block(x, y, z));
+                    case EventTrace.TICK -> {
+                        for (int t = 0; t < trace.a[i]; t++) {
+                            listener.nextTick();
+                            ticks++;
+                            if (nanosPerTick > 0) pace(start + ticks * nanosPerTick);
+                        }
+                    }
+                    default -> {
+                        if (nanosPerEvent > 0) pace(start + events * nanosPerEvent);
+                        long t0 = System.nanoTime();
+                        boolean cancel = dispatch(kind, x, y, z, i);
+                        long nanos = System.nanoTime() - t0;
+                        latency.record(nanos);
+                        busyNanos += nanos;
+                        dispatched[kind]++;
+                        if (cancel) cancelled[kind]++;
+                        events++;
+                    }
+                }
+            }
+            wallNanos = System.nanoTime() - start;
+            allocated = threads.getCurrentThreadAllocatedBytes() - alloc0;
+            gcCount = gcCount() - gcCount0;
+            gcMillis = gcMillis() - gcMillis0;
+        }
+
+        // Events are built per call, as the server does
+        private boolean dispatch(byte kind, int x, int y, int z, int i) {
+            Block block = world.block(x, y, z);
+            switch (kind) {
+                case EventTrace.PHYSICS -> {
+                    Block source = world.block(x + trace.a[i], y + trace.b[i], z + trace.c[i]);
+                    BlockPhysicsEvent e = new BlockPhysicsEvent(block, data(world.type(x, y, z)), source);
+                    listener.onPhysics(e);
+                    return e.isCancelled();
+                }
+                case EventTrace.FLUID -> {
+                    BlockFromToEvent e = new BlockFromToEvent(block.getRelative(EventTrace.FACES[trace.a[i]]), block);
+                    listener.onFluidFlow(e);
+                    return e.isCancelled();
+                }
+                case EventTrace.INTERACT -> {
+                    BlockFace face = EventTrace.FACES[trace.a[i]];
+                    PlayerInteractEvent e = new PlayerInteractEvent(player, Action.RIGHT_CLICK_BLOCK, item(trace.materials[trace.b[i]]), block, face);
+                    listener.onPlaceUnderwater(e);
+                    return e.isCancelled();
+                }
+                default -> throw new IllegalStateException("Not an event record: " + kind);
+            }
+        }
+
+        private BlockData data(Material type) {
+            return data.computeIfAbsent(type, Fakes::blockData);
+        }
+
+        private Fakes.FakeItemStack item(Material type) {
+            Fakes.FakeItemStack item = items.computeIfAbsent(type, t -> new Fakes.FakeItemStack(t, Integer.MAX_VALUE));
+            item.setAmount(Integer.MAX_VALUE);
+            return item;
+        }
+
+        private static void pace(long due) {
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                if (wait > 200_000L) {
+                    LockSupport.parkNanos(wait - 100_000L);
+                } else {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+
+        private static long gcCount() {
+            long n = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) n += Math.max(0, gc.getCollectionCount());
+            return n;
+        }
+
+        private static long gcMillis() {
+            long n = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) n += Math.max(0, gc.getCollectionTime());
+            return n;
+        }
+
+        void report(String name, java.io.PrintStream out) {
+            long events = dispatched[EventTrace.PHYSICS] + dispatched[EventTrace.FLUID] + dispatched[EventTrace.INTERACT];
+            double seconds = wallNanos / 1e9;
+            HandlerStats s = listener.getStats();
+            out.printf(Locale.ROOT, "%s: %d events, %d ticks in %.3f s = %.0f events/s (handlers busy %.1f%%)%n",
+                    name, events, ticks, seconds, events / seconds, 100.0 * busyNanos / Math.max(1, wallNanos));
+            out.printf(Locale.ROOT, "  physics   %9d dispatched %9d cancelled%n", dispatched[EventTrace.PHYSICS], cancelled[EventTrace.PHYSICS]);
+            out.printf(Locale.ROOT, "  fluid     %9d dispatched %9d cancelled%n", dispatched[EventTrace.FLUID], cancelled[EventTrace.FLUID]);
+            out.printf(Locale.ROOT, "  interact  %9d dispatched %9d placed %d rejected%n", dispatched[EventTrace.INTERACT],
+                    s.getPlaced(), s.getRejectedTotal());
+            out.printf(Locale.ROOT, "  latency   p50 %d ns, p99 %d ns, p99.9 %d ns, max %d ns; memo hit ratio %.1f%%%n",
+                    latency.percentile(0.50), latency.percentile(0.99), latency.percentile(0.999), latency.maxNanos(),
+                    listener.getPhysicsCacheHitRatio() * 100.0);
+            out.printf(Locale.ROOT, "  gc        %d collections, %d ms; allocated %.1f MB (%.0f B/event, %.1f MB/s)%n",
+                    gcCount, gcMillis, allocated / 1e6, (double) allocated / Math.max(1, events), allocated / 1e6 / seconds);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.hro_basti.underwatertrees.replay;
+
+import org.bukkit.Material;
+import org.bukkit.block.BlockFace;
+
+import java.util.List;
+import java.util.Random;
+
+// Generated incidents for when no captured trace is at hand. Layout matches the benchmarks: dirt
+// at SOIL_Y, saplings at SAPLING_Y, water up to WATER_TOP, a field of side 16 * scale.
+// Deterministic per seed, so two runs replay identical streams.
+final class TraceScenarios {
+
+    static final List<String> NAMES = List.of("monument-drain", "farm-growth");
+
+    static final int SOIL_Y = 40;
+    static final int SAPLING_Y = 41;
+    static final int WATER_TOP = 62;
+    static final int MIN_Y = -64;
+    static final int MAX_Y = 320;
+
+    private TraceScenarios() {
+    }
+
+    static EventTrace generate(String name, int scale, long seed) {
+        return switch (name) {
+            case "monument-drain" -> monumentDrain(scale, new Random(seed));
+            case "farm-growth" -> farmGrowth(scale, new Random(seed));
+            default -> throw new IllegalArgumentException("Unknown scenario " + name + ", expected one of " + NAMES);
+        };
+    }
+
+    // A flooded field of tracked saplings drained one row per tick (sponges, or a wall of sand
+    // dropped and removed). Every drained column fires physics on its sapling from above and the
+    // rows beside it, and the retreating water flows into the drained row.
+    private static EventTrace monumentDrain(int scale, Random random) {
+        int side = 16 * scale;
+        EventTrace.Builder t = EventTrace.builder(side, MIN_Y, MAX_Y);
+        for (int z = 0; z < side; z++) {
+            for (int x = 0; x < side; x++) {
+                t.column(x, SOIL_Y, z, Material.DIRT, 1);
+                t.column(x, SAPLING_Y, z, Material.OAK_SAPLING, 1);
+                t.column(x, SAPLING_Y + 1, z, Material.WATER, WATER_TOP - SAPLING_Y);
+                t.track(x, SAPLING_Y, z);
+            }
+        }
+        for (int z = 0; z < side; z++) {
+            t.tick(1);
+            for (int x = 0; x < side; x++) {
+                // Before the column drains: water pressing into the sapling, neighbour updates
+                t.fluid(x, SAPLING_Y, z, BlockFace.UP);
+                t.physics(x, SAPLING_Y, z, 0, 1, 0);
+                t.column(x, SAPLING_Y + 1, z, Material.AIR, WATER_TOP - SAPLING_Y);
+                // After: the sapling loses its water, the row ahead still has it
+                t.physics(x, SAPLING_Y, z, 0, 1, 0);
+                if (z + 1 < side) t.physics(x, SAPLING_Y, z + 1, 0, 0, -1);
+                if (x > 0) t.physics(x - 1, SAPLING_Y, z, 1, 0, 0);
+                if (z + 1 < side) t.fluid(x, SAPLING_Y + 1, z, BlockFace.SOUTH);
+                // Water blocks around the front re-evaluate too; untracked positions
+                for (int y = SAPLING_Y + 2; y <= WATER_TOP; y += 4 + random.nextInt(4)) {
+                    if (z + 1 < side) t.physics(x, y, z + 1, 0, 0, -1);
+                }
+            }
+        }
+        return t.build();
+    }
+
+    // A farm planted in one go by a few players, then a growth wave: random ticks and neighbour
+    // updates on every sapling for a while, with some of them turning into trees.
+    private static EventTrace farmGrowth(int scale, Random random) {
+        int side = 16 * scale;
+        EventTrace.Builder t = EventTrace.builder(side, MIN_Y, MAX_Y);
+        for (int z = 0; z < side; z++) {
+            for (int x = 0; x < side; x++) {
+                t.column(x, SOIL_Y, z, Material.DIRT, 1);
+                t.column(x, SAPLING_Y, z, Material.WATER, WATER_TOP - SAPLING_Y + 1);
+            }
+        }
+        // Planting: four players, one right-click each per tick, plus misclicks on the side of the soil
+        int planted = 0;
+        for (int z = 0; z < side; z++) {
+            for (int x = 0; x < side; x++) {
+                if (planted++ % 4 == 0) t.tick(1);
+                if (random.nextInt(16) == 0) t.interact(x, SOIL_Y, z, BlockFace.NORTH, Material.OAK_SAPLING);
+                t.interact(x, SOIL_Y, z, BlockFace.UP, Material.OAK_SAPLING);
+                t.physics(x, SAPLING_Y, z, 0, -1, 0);
+            }
+        }
+        // Growth wave: per tick, neighbour updates on a random share of the field
+        int rounds = 20 * 30;
+        int perTick = Math.max(16, side * side / 32);
+        for (int r = 0; r < rounds; r++) {
+            t.tick(1);
+            for (int i = 0; i < perTick; i++) {
+                int x = random.nextInt(side), z = random.nextInt(side);
+                switch (random.nextInt(8)) {
+                    case 0 -> {
+                        // Grown into a tree: trunk replaces sapling and water, updates ripple out
+                        t.column(x, SAPLING_Y, z, Material.OAK_LOG, 5);
+                        t.physics(x, SAPLING_Y, z, 0, -1, 0);
+                        if (x + 1 < side) t.physics(x + 1, SAPLING_Y, z, -1, 0, 0);
+                    }
+                    case 1 -> t.fluid(x, SAPLING_Y, z, EventTrace.FACES[random.nextInt(4)]);
+                    case 2 -> t.physics(x, SAPLING_Y, z, 0, -1, 0);
+                    default -> t.physics(x, SAPLING_Y, z, random.nextBoolean() ? 1 : -1, 0, 0);
+                }
+            }
+        }
+        return t.build();
+    }
+}
@@ -0,0 +1,156 @@
+package com.hro_basti.underwatertrees.update;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Streaming version-feed parsing vs. the previous regex scan over large synthetic Modrinth/Hangar
+// payloads. The only matching entry sits at the end of the list (worst case for both approaches).
+// Run: ./gradlew jmh -Pjmh.includes=VersionFeedBenchmark  (gc profiler reports alloc rate)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VersionFeedBenchmark {
+
+    @Param({"20", "200", "2000"})
+    public int entries;
+
+    private static final String MC = "1.21.10";
+    private static final String MC_PREFIX = "1.21";
+    private final VersionFeedParser.Filter filter = new VersionFeedParser.Filter(false, true, MC, MC_PREFIX);
+
+    private byte[] modrinth;
+    private byte[] hangar;
+
+    @Setup
+    public void setup() {
+        modrinth = modrinthPayload(entries).getBytes(StandardCharsets.UTF_8);
+        hangar = hangarPayload(entries).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String modrinthStreaming() throws IOException {
+        return VersionFeedParser.firstModrinthMatch(
+                new InputStreamReader(new ByteArrayInputStream(modrinth), StandardCharsets.UTF_8), filter);
+    }
+
+    @Benchmark
+    public String modrinthRegex() {
+        return LegacyScan.modrinth(new String(modrinth, StandardCharsets.UTF_8), false, true, MC, MC_PREFIX);
+    }
+
+    @Benchmark
+    public String hangarStreaming() throws IOException {
+        return VersionFeedParser.firstHangarMatch(
+                new InputStreamReader(new ByteArrayInputStream(hangar), StandardCharsets.UTF_8), filter);
+    }
+
+    @Benchmark
+    public String hangarRegex() {
+        return LegacyScan.hangar(new String(hangar, StandardCharsets.UTF_8), false, true, MC, MC_PREFIX);
+    }
+
+    // Modrinth-shaped entries, including the nested file/dependency objects real responses carry
+    static String modrinthPayload(int n) {
+        StringBuilder sb = new StringBuilder(n * 700);
+        sb.append('[');
+        for (int i = 0; i < n; i++) {
+            boolean match = i == n - 1;
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\":\"v").append(i).append("\",\"project_id\":\"abc\",\"author_id\":\"def\",")
+              .append("\"name\":\"UnderwaterTrees ").append(i).append("\",")
+              .append("\"version_number\":\"").append(match ? "9.9.9" : "0.0." + i).append("\",")
+              .append("\"changelog\":\"Fixes {braces} and \\\"quotes\\\" in changelog ").append(i).append("\",")
+              .append("\"dependencies\":[{\"version_id\":null,\"project_id\":\"xyz\",\"dependency_type\":\"optional\"}],")
+              .append("\"game_versions\":[\"").append(match ? MC : "1.20.4").append("\",\"1.20.6\"],")
+              .append("\"version_type\":\"release\",")
+              .append("\"loaders\":[\"").append(match ? "paper" : "fabric").append("\"],")
+              .append("\"featured\":false,\"status\":\"listed\",\"downloads\":").append(i * 13).append(',')
+              .append("\"files\":[{\"hashes\":{\"sha512\":\"").append("a".repeat(128)).append("\",\"sha1\":\"").append("b".repeat(40)).append("\"},")
+              .append("\"url\":\"https://cdn.modrinth.com/data/abc/versions/").append(i).append("/UnderwaterTrees.jar\",")
+              .append("\"filename\":\"UnderwaterTrees.jar\",\"primary\":true,\"size\":42000}]}");
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+
+    static String hangarPayload(int n) {
+        StringBuilder sb = new StringBuilder(n * 600);
+        sb.append("{\"pagination\":{\"limit\":").append(n).append(",\"offset\":0,\"count\":").append(n).append("},\"result\":[");
+        for (int i = 0; i < n; i++) {
+            boolean match = i == n - 1;
+            if (i > 0) sb.append(',');
+            sb.append("{\"createdAt\":\"2025-01-01T00:00:00Z\",\"name\":\"").append(match ? "9.9.9" : "0.0." + i).append("\",")
+              .append("\"visibility\":\"public\",\"description\":\"Build ").append(i).append(" {notes}\",")
+              .append("\"stats\":{\"totalDownloads\":").append(i).append(",\"platformDownloads\":{\"PAPER\":").append(i).append("}},")
+              .append("\"author\":\"hro_basti\",\"reviewState\":\"reviewed\",")
+              .append("\"channel\":{\"createdAt\":\"2024-01-01T00:00:00Z\",\"name\":\"").append(match ? "Release" : "Snapshot").append("\",\"color\":\"#009600\",\"flags\":[]},")
+              .append("\"pinnedStatus\":\"NONE\",")
+              .append("\"downloads\":{\"PAPER\":{\"fileInfo\":{\"name\":\"UnderwaterTrees.jar\",\"sizeBytes\":42000,\"sha256Hash\":\"").append("c".repeat(64)).append("\"},\"externalUrl\":null,\"downloadUrl\":\"https://hangar.papermc.io/api/v1/x\"}},")
+              .append("\"pluginDependencies\":{},")
+              .append("\"platformDependencies\":{\"PAPER\":[\"").append(match ? MC_PREFIX : "1.20").append("\"]},")
+              .append("\"platformDependenciesFormatted\":{\"PAPER\":\"").append(match ? MC_PREFIX : "1.20").append("\"}}");
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    // Previous implementation (regex over the whole body plus contains() per match), kept as baseline
+    static final class LegacyScan {
+        private static final Pattern MODRINTH = Pattern.compile("\\{[^}]*\\\"version_number\\\":\\\"([^\\\"]+)\\\"[^}]*} ");
+        private static final Pattern HANGAR = Pattern.compile("\\{[^}]*\\}");
+
+        static String modrinth(String body, boolean includePre, boolean filterByMc, String mc, String mcPrefix) {
+            Matcher m = MODRINTH.matcher(body + " ");
+            while (m.find()) {
+                String obj = body.substring(m.start(), Math.min(body.length(), m.end()));
+                String ver = m.group(1);
+                if (!includePre && obj.contains("\"version_type\":\"beta\"") || obj.contains("\"version_type\":\"alpha\"")) continue;
+                if (!(obj.contains("paper") || obj.contains("Paper"))) continue;
+                if (filterByMc && !(obj.contains("\"" + mc + "\"") || obj.contains("\"" + mcPrefix + "\""))) continue;
+                return ver;
+            }
+            return null;
+        }
+
+        static String hangar(String body, boolean includePre, boolean filterByMc, String mc, String mcPrefix) {
+            Matcher m = HANGAR.matcher(body);
+            while (m.find()) {
+                String obj = m.group();
+                boolean isRelease = obj.contains("Release") || obj.contains("\"channel\":\"Release\"");
+                if (!includePre && !isRelease) continue;
+                if (!(obj.contains("PAPER") || obj.contains("paper"))) continue;
+                if (filterByMc && !(obj.contains(mc) || obj.contains(mcPrefix))) continue;
+                for (String pref : List.of("\"name\":\"", "\"version\":\"")) {
+                    int i = obj.indexOf(pref);
+                    if (i >= 0) {
+                        int s = i + pref.length();
+                        int e = obj.indexOf('"', s);
+                        if (e > s) return obj.substring(s, e);
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -5,56 +5,131 @@ import org.bukkit.plugin.java.JavaPlugin;
 import com.hro_basti.underwatertrees.metrics.Metrics;
 
 import com.hro_basti.underwatertrees.i18n.Messages;
+import com.hro_basti.underwatertrees.io.Storage;
+import com.hro_basti.underwatertrees.io.WriteBehind;
+import com.hro_basti.underwatertrees.lifecycle.Lifecycle;
+import com.hro_basti.underwatertrees.load.LoadController;
+import com.hro_basti.underwatertrees.listeners.PlayerLocaleListener;
+import com.hro_basti.underwatertrees.listeners.ChunkTrackingListener;
 import com.hro_basti.underwatertrees.listeners.UnderwaterSaplingsListener;
+import com.hro_basti.underwatertrees.listeners.UnderwaterTreeGrowListener;
 import com.hro_basti.underwatertrees.commands.UnderwaterTreesBasicCommand;
+import com.hro_basti.underwatertrees.config.ConfigWatcher;
+import com.hro_basti.underwatertrees.config.ContentHash;
+import com.hro_basti.underwatertrees.config.PreparedReload;
+import com.hro_basti.underwatertrees.growth.GrowthEngine;
+import com.hro_basti.underwatertrees.listeners.SaplingRules;
+import com.hro_basti.underwatertrees.scan.WorldScan;
+import com.hro_basti.underwatertrees.stats.PrometheusExporter;
+import com.hro_basti.underwatertrees.stats.PrometheusWriter;
+import com.hro_basti.underwatertrees.tracking.SaplingIndex;
+import com.hro_basti.underwatertrees.scheduler.PluginScheduler;
+import com.hro_basti.underwatertrees.tracking.SaplingRegistry;
 import com.hro_basti.underwatertrees.update.UpdateChecker;
+import com.hro_basti.underwatertrees.update.UpdateNotifyListener;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 
 public class Plugin extends JavaPlugin {
 
+    private UnderwaterTreeGrowListener treeGrowListener;
     private UnderwaterSaplingsListener saplingsListener;
+    private SaplingRegistry saplingRegistry;
     private Messages messages;
-    private long configLastModified;
-    private int autoReloadTaskId = -1; // Task id for scheduled auto reload
+    private PluginScheduler scheduler;
+    // Current config; swapped as a whole by the config watcher
+    private volatile FileConfiguration config;
+    // Hash of the config.yml bytes we last loaded or wrote ourselves
+    private volatile byte[] configHash;
+    // Listeners, tasks and services; owns their shutdown
+    private Lifecycle lifecycle;
+    // All file writes go through here; owned by the lifecycle so it is flushed last on disable
+    private WriteBehind writer;
+    private ConfigWatcher configWatcher;
+    private GrowthEngine growthEngine;
+    private LoadController loadController;
+    // At most one world scan at a time
+    private volatile WorldScan worldScan;
     private Metrics metrics;
+    private PrometheusExporter prometheus;
     private UpdateChecker updateChecker;
-    private int updateTaskId = -1;
 
     @Override
     public void onEnable() {
+        scheduler = new PluginScheduler(this);
+        lifecycle = new Lifecycle(this);
+        writer = lifecycle.service("writer", WriteBehind.start(Storage.DISK, getLogger()));
         saveDefaultConfig();
         ensureConfigDefaults();
 
         String lang = getConfig().getString("language", "en_US");
         messages = new Messages(this, lang);
+        configureMessages();
         // Log active language on startup
         getLogger().info(messages.get("plugin.language_set", java.util.Map.of("code", messages.getLanguage())));
 
-        saplingsListener = new UnderwaterSaplingsListener(this);
-        Bukkit.getPluginManager().registerEvents(saplingsListener, this);
+        saplingRegistry = new SaplingRegistry(this);
+        saplingsListener = new UnderwaterSaplingsListener(this, saplingRegistry);
+        lifecycle.listener("saplings", saplingsListener);
+        lifecycle.listener("chunk-tracking", new ChunkTrackingListener(saplingRegistry, scheduler));
+        treeGrowListener = lifecycle.listener("tree-grow", new UnderwaterTreeGrowListener(saplingRegistry, saplingsListener.getStats()));
+        lifecycle.listener("player-locale", new PlayerLocaleListener(messages, scheduler));
+        // Chunks loaded before enable (spawn, plugin reload) never fire ChunkLoadEvent for us.
+        // Folia has no global chunk view; its regions load after plugins enable anyway.
+        if (!PluginScheduler.isFolia()) {
+            saplingRegistry.loadAll(getConfig().getBoolean("log-stats", true));
+        }
+        // Tick boundary for the per-tick physics memo
+        lifecycle.task("tick", scheduler.runGlobalTimer(saplingsListener::nextTick, 1L, 1L));
 
         // Register Paper Brigadier basic command at runtime
         registerCommand("underwatertrees", new UnderwaterTreesBasicCommand(this, saplingsListener));
 
         getLogger().info(messages.get("plugin.enabled"));
 
-        // Initialize timestamp for config auto hot-reload
-        java.io.File cfgFile = new java.io.File(getDataFolder(), "config.yml");
-        configLastModified = cfgFile.lastModified();
+        // Start config watcher for auto hot-reload if enabled
         updateAutoReloadFlag();
 
         initMetrics();
 
         initUpdateChecker();
+
+        initGrowth();
+
+        initLoadAdaptation();
+
+        initPrometheus();
     }
 
     @Override
     public void onDisable() {
+        // Config watcher first so no reload can start while the rest shuts down
         stopAutoReload();
-        stopUpdateCheck();
+        if (lifecycle != null) {
+            lifecycle.shutdown();
+        }
+        configWatcher = null;
+        growthEngine = null;
+        loadController = null;
+        metrics = null;
+        prometheus = null;
+        updateChecker = null;
+        if (scheduler != null) {
+            scheduler.cancelAll();
+        }
+        if (saplingRegistry != null) {
+            // Chunks still loaded are saved by the server after plugins are disabled
+            saplingRegistry.saveAll();
+            saplingRegistry.clear();
+        }
         if (messages == null) {
             getLogger().info("UnderwaterTrees plugin disabled.");
         } else {
@@ -62,10 +137,77 @@ public class Plugin extends JavaPlugin {
         }
     }
 
+    public PluginScheduler getScheduler() {
+        return scheduler;
+    }
+
     public Messages getMessages() {
         return messages;
     }
 
+    public Lifecycle getLifecycle() {
+        return lifecycle;
+    }
+
+    public WriteBehind getWriter() {
+        return writer;
+    }
+
+    @Override
+    public FileConfiguration getConfig() {
+        FileConfiguration c = config;
+        if (c == null) {
+            c = super.getConfig();
+            config = c;
+        }
+        return c;
+    }
+
+    @Override
+    public void reloadConfig() {
+        super.reloadConfig();
+        config = super.getConfig();
+        try {
+            configHash = ContentHash.of(Files.readAllBytes(configPath()));
+        } catch (IOException ex) {
+            configHash = null;
+        }
+    }
+
+    @Override
+    public void saveConfig() {
+        byte[] content = getConfig().saveToString().getBytes(StandardCharsets.UTF_8);
+        // Remember what we write so the watcher recognises its own change
+        configHash = ContentHash.of(content);
+        writer.write(configPath(), content);
+    }
+
+    @Override
+    public void saveDefaultConfig() {
+        if (Files.exists(configPath())) return;
+        try (InputStream in = getResource("config.yml")) {
+            if (in == null) return;
+            byte[] content = in.readAllBytes();
+            YamlConfiguration cfg = new YamlConfiguration();
+            cfg.loadFromString(new String(content, StandardCharsets.UTF_8));
+            // First start: serve the bundled file from memory while its copy (comments and all) is
+            // queued; the hash keeps the watcher from reloading our own write
+            config = cfg;
+            configHash = ContentHash.of(content);
+            writer.writeIfAbsent(configPath(), content);
+        } catch (IOException | InvalidConfigurationException ex) {
+            getLogger().warning("Failed to save default config.yml: " + ex.getMessage());
+        }
+    }
+
+    public boolean isCurrentConfig(byte[] content) {
+        return ContentHash.matches(configHash, content);
+    }
+
+    private Path configPath() {
+        return getDataFolder().toPath().resolve("config.yml");
+    }
+
     public void reloadMessages() {
         if (this.messages == null) {
             String lang = getConfig().getString("language", "en_US");
@@ -73,62 +215,94 @@ public class Plugin extends JavaPlugin {
         } else {
             this.messages.reload(getConfig());
         }
+        afterReload();
+    }
+
+    private void afterReload() {
+        configureMessages();
         // Log active language on reload
         getLogger().info(messages.get("plugin.language_set", java.util.Map.of("code", messages.getLanguage())));
         // Apply auto-reload flag after a manual reload as well
         updateAutoReloadFlag();
         initMetrics();
         initUpdateChecker();
+        initGrowth();
+        initLoadAdaptation();
+        initPrometheus();
+    }
+
+    // Runs on the config watcher thread: parse, merge defaults in memory and compile everything
+    // the handlers need, without touching live state
+    public PreparedReload prepareReload(byte[] content) throws InvalidConfigurationException {
+        long start = System.nanoTime();
+        YamlConfiguration cfg = new YamlConfiguration();
+        cfg.loadFromString(new String(content, StandardCharsets.UTF_8));
+        YamlConfiguration def = loadBundledConfig();
+        if (def != null) {
+            cfg.setDefaults(def);
+            cfg.options().copyDefaults(true);
+        }
+        SaplingRules rules = SaplingRules.compile(cfg, getLogger());
+        Messages.Bundle bundle = messages.load(cfg.getString("language", "en_US"));
+        return new PreparedReload(cfg, rules, bundle, ContentHash.of(content), System.nanoTime() - start);
+    }
+
+    // Runs on the global region thread: only swaps in already built state
+    public void applyReload(PreparedReload prepared) {
+        long start = System.nanoTime();
+        config = prepared.config();
+        configHash = prepared.contentHash();
+        saplingsListener.applyRules(prepared.rules(), prepared.config().getBoolean("log-stats", true));
+        messages.apply(prepared.messages());
+        afterReload();
+        saplingsListener.getStats().recordReload(prepared.prepareNanos() + System.nanoTime() - start);
     }
 
     private void startAutoReload() {
-        // Check every 5 seconds (100 ticks)
-        autoReloadTaskId = Bukkit.getScheduler().runTaskTimer(this, () -> {
-            try {
-                java.io.File cfgFile = new java.io.File(getDataFolder(), "config.yml");
-                long lm = cfgFile.lastModified();
-                if (lm != 0 && lm != configLastModified) {
-                    configLastModified = lm;
-                    // External change detected: reload config, listener and messages
-                    reloadConfig();
-                    ensureConfigDefaults();
-                    saplingsListener.applyConfig(getConfig());
-                    reloadMessages();
-                    getLogger().info("Config file changed externally – auto reloaded.");
-                }
-            } catch (Exception ex) {
-                getLogger().warning("Error during auto-reload check: " + ex.getMessage());
-            }
-        }, 100L, 100L).getTaskId();
+        ConfigWatcher watcher = new ConfigWatcher(this, configPath());
+        try {
+            watcher.start();
+        } catch (IOException ex) {
+            getLogger().warning("Could not watch config.yml for changes: " + ex.getMessage());
+            return;
+        }
+        configWatcher = lifecycle.service("config-watcher", watcher);
     }
 
     private void stopAutoReload() {
-        if (autoReloadTaskId != -1) {
-            Bukkit.getScheduler().cancelTask(autoReloadTaskId);
-            autoReloadTaskId = -1;
+        if (configWatcher != null) {
+            lifecycle.stop("config-watcher");
+            configWatcher = null;
         }
     }
 
     private void updateAutoReloadFlag() {
         boolean enabled = getConfig().getBoolean("auto-reload", true);
         if (enabled) {
-            if (autoReloadTaskId == -1) {
+            if (configWatcher == null) {
                 startAutoReload();
             }
         } else {
-            if (autoReloadTaskId != -1) {
+            if (configWatcher != null) {
                 stopAutoReload();
                 getLogger().info("Auto-reload disabled via config.");
             }
         }
     }
 
+    private void configureMessages() {
+        messages.configure(getConfig().getBoolean("per-player-language", true),
+                getConfig().getInt("language-cache-size", 4));
+    }
+
     // Initialize or disable bStats metrics based on config flag
     private void initMetrics() {
         boolean enabled = getConfig().getBoolean("metrics-enabled", true);
         if (enabled) {
             if (metrics == null) {
                 metrics = new Metrics(this, 28005);
+                Metrics m = metrics;
+                lifecycle.own("bstats", m, m::shutdown);
                 // Custom charts: language, sapling count, soil count
                 metrics.addCustomChart(new Metrics.SimplePie("language", () -> messages.getLanguage()));
                 metrics.addCustomChart(new Metrics.SingleLineChart("sapling_count", saplingsListener::getSaplingCount));
@@ -137,72 +311,228 @@ public class Plugin extends JavaPlugin {
         } else {
             if (metrics != null) {
                 // Cannot fully stop submissions immediately; shutdown scheduler
-                metrics.shutdown();
+                lifecycle.stop("bstats");
                 metrics = null;
             }
         }
     }
 
+    // Local Prometheus endpoint; restarted only when the bind address changes
+    private void initPrometheus() {
+        if (!getConfig().getBoolean("prometheus.enabled", false)) {
+            stopPrometheus();
+            return;
+        }
+        String host = getConfig().getString("prometheus.host", "127.0.0.1");
+        int port = getConfig().getInt("prometheus.port", 9940);
+        if (prometheus != null && !prometheus.getAddress().equals(new java.net.InetSocketAddress(host, port))) {
+            stopPrometheus();
+        }
+        if (prometheus == null) {
+            PrometheusExporter exporter = new PrometheusExporter(getLogger(), host, port, this::collectMetrics);
+            try {
+                exporter.start();
+            } catch (IOException | RuntimeException ex) {
+                getLogger().warning("Prometheus exporter could not bind " + host + ":" + port + ": " + ex.getMessage());
+                return;
+            }
+            prometheus = lifecycle.own("prometheus", exporter, exporter::stop);
+            getLogger().info("Prometheus metrics on http://" + host + ":" + exporter.getPort() + "/metrics");
+        }
+        long seconds = Math.max(1L, getConfig().getLong("prometheus.refresh-seconds", 5L));
+        PrometheusExporter exporter = prometheus;
+        lifecycle.task("prometheus-refresh", scheduler.runAsyncTimer(exporter::refresh, 0L, seconds, TimeUnit.SECONDS));
+    }
+
+    private void stopPrometheus() {
+        lifecycle.stop("prometheus-refresh");
+        if (prometheus != null) {
+            lifecycle.stop("prometheus");
+            prometheus = null;
+        }
+    }
+
+    // Async thread: only LongAdder/histogram sums and the lock-guarded index counts
+    private void collectMetrics(PrometheusWriter w) {
+        saplingsListener.getStats().writeTo(w);
+        w.counter("underwatertrees_physics_cache_hits_total", "Physics decisions answered from the per-tick memo.", saplingsListener.getPhysicsCacheHits());
+        w.counter("underwatertrees_physics_cache_lookups_total", "Physics decision memo lookups.", saplingsListener.getPhysicsCacheLookups());
+        SaplingIndex index = saplingRegistry.getIndex();
+        w.gauge("underwatertrees_tracked_saplings", "Tracked saplings in loaded chunks.", index.getTrackedCount());
+        w.gauge("underwatertrees_tracked_chunks", "Loaded chunks holding tracked saplings.", index.getTrackedChunkCount());
+        w.gauge("underwatertrees_event_handlers", "Event handlers registered by the plugin.", lifecycle.getRegisteredHandlerCount());
+        LoadController load = loadController;
+        if (load != null) {
+            w.gauge("underwatertrees_load_degraded", "1 while protection runs in degraded mode.", load.isDegraded() ? 1 : 0);
+            w.gauge("underwatertrees_load_mspt", "Average tick time at the last load sample, in milliseconds.", load.getLastMspt());
+            w.counter("underwatertrees_load_mode_switches_total", "Switches between normal and degraded mode.", load.getSwitches());
+        }
+        w.gauge("underwatertrees_scheduled_tasks", "Repeating tasks owned by the plugin.", lifecycle.getTaskCount());
+        w.gauge("underwatertrees_file_writes_pending", "Files queued for the background writer.", writer.getPendingCount());
+        w.counter("underwatertrees_file_writes_total", "Files written by the background writer.", writer.getWrittenCount());
+        w.counter("underwatertrees_file_writes_coalesced_total", "Queued writes replaced by a newer one before reaching disk.", writer.getCoalescedCount());
+        w.counter("underwatertrees_file_writes_failed_total", "Background file writes that failed.", writer.getFailedCount());
+        GrowthEngine growth = growthEngine;
+        if (growth != null) {
+            w.counter("underwatertrees_growth_visited_total", "Saplings visited by the growth engine.", growth.getVisited());
+            w.counter("underwatertrees_growth_stages_total", "Sapling stages advanced by the growth engine.", growth.getStagesAdvanced());
+            w.counter("underwatertrees_growth_trees_total", "Trees grown by the growth engine.", growth.getTreesGrown());
+            w.gauge("underwatertrees_growth_round_ticks", "Ticks the last pass over all tracked saplings took.", growth.getLastRoundTicks());
+        }
+    }
+
     private void initUpdateChecker() {
         boolean enabled = getConfig().getBoolean("update-check", true);
         if (!enabled) {
             stopUpdateCheck();
             return;
         }
-        if (updateChecker == null) updateChecker = new UpdateChecker(this);
-        // Immediate async check
-        updateChecker.checkNowAsync();
-        // Schedule periodic checks
+        if (updateChecker == null) updateChecker = lifecycle.service("update-checker", new UpdateChecker(this));
+        // Immediate async check (answered from the disk cache when still fresh)
+        updateChecker.check(false);
+        // Schedule periodic checks; report only once the check has actually completed
         long hours = Math.max(1, getConfig().getLong("update-interval-hours", 24));
-        long periodTicks = hours * 60L * 60L * 20L;
-        if (updateTaskId != -1) {
-            Bukkit.getScheduler().cancelTask(updateTaskId);
-        }
-        updateTaskId = Bukkit.getScheduler().runTaskTimerAsynchronously(this, () -> {
-            try {
-                updateChecker.checkNowAsync();
-                if (updateChecker.isUpdateAvailable() && getConfig().getBoolean("notify-console", true)) {
-                    getLogger().info("Update available: " + updateChecker.getRemoteVersion() + " (source: " + updateChecker.getRemoteSource() + ") " + (updateChecker.getRemoteUrl() != null ? updateChecker.getRemoteUrl() : ""));
-                }
-            } catch (Exception ignored) {}
-        }, 200L, periodTicks).getTaskId();
-        // Join notify listener
-        Bukkit.getPluginManager().registerEvents(new org.bukkit.event.Listener() {
-            @org.bukkit.event.EventHandler
-            public void onJoin(org.bukkit.event.player.PlayerJoinEvent e) {
-                if (!getConfig().getBoolean("notify-op-join", true)) return;
-                if (!updateChecker.isUpdateAvailable()) return;
-                var p = e.getPlayer();
-                if (!(p.isOp() || p.hasPermission("underwatertrees.update"))) return;
-                String vLocal = getDescription().getVersion();
-                String vRemote = updateChecker.getRemoteVersion();
-                String url = updateChecker.getRemoteUrl();
-                p.sendMessage(net.kyori.adventure.text.Component.text("UnderwaterTrees: New version " + vRemote + " available (you run " + vLocal + ")").color(net.kyori.adventure.text.format.NamedTextColor.YELLOW));
-                if (url != null && !url.isEmpty()) {
-                    p.sendMessage(net.kyori.adventure.text.Component.text("More: " + url).color(net.kyori.adventure.text.format.NamedTextColor.GRAY));
-                }
+        UpdateChecker checker = updateChecker;
+        lifecycle.task("update-check", scheduler.runAsyncTimer(() -> checker.check(false).thenAccept(result -> {
+            if (result.updateAvailable() && getConfig().getBoolean("notify-console", true)) {
+                getLogger().info("Update available: " + result.version() + " (source: " + result.source() + ") " + (result.url() != null ? result.url() : ""));
             }
-        }, this);
+        }), 10L, hours * 60L * 60L, TimeUnit.SECONDS));
+        // Join notify listener; registered once, survives reloads
+        if (!lifecycle.has("update-notify")) lifecycle.listener("update-notify", new UpdateNotifyListener(this));
     }
 
-    private void stopUpdateCheck() {
-        if (updateTaskId != -1) {
-            Bukkit.getScheduler().cancelTask(updateTaskId);
-            updateTaskId = -1;
+    // Start, retune or stop the growth engine based on config
+    private void initGrowth() {
+        if (!getConfig().getBoolean("growth.enabled", false)) {
+            stopGrowth();
+            return;
+        }
+        if (growthEngine == null) {
+            growthEngine = new GrowthEngine(getLogger(), saplingRegistry, saplingsListener::getRules, treeGrowListener, scheduler);
+        }
+        growthEngine.applyConfig(getConfig());
+        if (!lifecycle.has("growth")) {
+            lifecycle.task("growth", scheduler.runGlobalTimer(this::tickGrowth, 1L, 1L));
+        }
+    }
+
+    // Growth is optional work: paused while the server is behind
+    private void tickGrowth() {
+        GrowthEngine growth = growthEngine;
+        LoadController load = loadController;
+        if (growth != null && (load == null || !load.isDegraded())) growth.tick();
+    }
+
+    private void stopGrowth() {
+        lifecycle.stop("growth");
+        growthEngine = null;
+    }
+
+    public GrowthEngine getGrowthEngine() {
+        return growthEngine;
+    }
+
+    // Sample MSPT once a second and switch protection to cheap checks while the server is behind
+    private void initLoadAdaptation() {
+        LoadController.Settings settings = LoadController.Settings.read(getConfig());
+        if (loadController == null) {
+            loadController = new LoadController(Plugin::averageTickMillis, settings, this::onLoadMode);
+        } else {
+            loadController.applySettings(settings);
+        }
+        if (!settings.enabled()) {
+            lifecycle.stop("load-monitor");
+        } else if (!lifecycle.has("load-monitor")) {
+            lifecycle.task("load-monitor", scheduler.runGlobalTimer(loadController::sample, 20L, 20L));
         }
     }
 
-    // Public hook to merge new default keys into existing config without overwriting user values
+    // Paper's average over the last 100 ticks; NaN where there is no global tick (Folia)
+    private static double averageTickMillis() {
+        try {
+            return Bukkit.getAverageTickTime();
+        } catch (UnsupportedOperationException ex) {
+            return Double.NaN;
+        }
+    }
+
+    private void onLoadMode(LoadController.Mode mode) {
+        boolean degraded = mode == LoadController.Mode.DEGRADED;
+        saplingsListener.setDegraded(degraded);
+        LoadController.Settings s = loadController.getSettings();
+        if (degraded) {
+            getLogger().warning(String.format(java.util.Locale.ROOT,
+                    "Server behind (%.1f mspt): sapling protection switched to cheap checks, growth paused", loadController.getLastMspt()));
+        } else {
+            getLogger().info(String.format(java.util.Locale.ROOT,
+                    "Server recovered (%.1f mspt < %.1f): full sapling protection resumed", loadController.getLastMspt(), s.recoverBelowMspt()));
+        }
+    }
+
+    public LoadController getLoadController() {
+        return loadController;
+    }
+
+    // Scan for saplings placed before the plugin was installed; null if a scan is already running
+    public synchronized WorldScan startScan(org.bukkit.World world, int radius, WorldScan.Progress progress) {
+        WorldScan running = worldScan;
+        if (running != null && !running.isFinished()) return null;
+        org.bukkit.Location spawn = world.getSpawnLocation();
+        WorldScan scan = new WorldScan(this, scheduler, saplingRegistry, saplingsListener.getRules(), world,
+                spawn.getBlockX() >> 4, spawn.getBlockZ() >> 4, radius,
+                getConfig().getInt("scan.chunks-per-tick", 4), getConfig().getInt("scan.threads", 0), progress);
+        worldScan = scan;
+        lifecycle.own("world-scan", scan, scan::stop);
+        scan.start();
+        return scan;
+    }
+
+    public WorldScan getWorldScan() {
+        WorldScan scan = worldScan;
+        return scan == null || scan.isFinished() ? null : scan;
+    }
+
+    private void stopUpdateCheck() {
+        lifecycle.stop("update-check");
+        lifecycle.stop("update-notify");
+    }
+
+    public UpdateChecker getUpdateChecker() {
+        return updateChecker;
+    }
+
+    // Public hook to merge new default keys into existing config without overwriting user values.
+    // Only writes config.yml when a default key is actually missing.
     public void ensureConfigDefaults() {
-        try (InputStream in = getResource("config.yml")) {
-            if (in == null) return;
-            YamlConfiguration def = YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            YamlConfiguration def = loadBundledConfig();
+            if (def == null) return;
             var cfg = getConfig();
+            boolean missing = false;
+            for (String key : def.getKeys(true)) {
+                if (!cfg.contains(key, true)) {
+                    missing = true;
+                    break;
+                }
+            }
             cfg.setDefaults(def);
             cfg.options().copyDefaults(true);
-            saveConfig();
+            if (missing) {
+                saveConfig();
+            }
         } catch (Exception ex) {
             getLogger().warning("Failed to merge default config: " + ex.getMessage());
         }
     }
+
+    private YamlConfiguration loadBundledConfig() {
+        try (InputStream in = getResource("config.yml")) {
+            if (in == null) return null;
+            return YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            getLogger().warning("Failed to read bundled config.yml: " + ex.getMessage());
+            return null;
+        }
+    }
 }
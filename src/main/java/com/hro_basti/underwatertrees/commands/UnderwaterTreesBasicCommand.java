@@ -2,14 +2,33 @@ package com.hro_basti.underwatertrees.commands;
 
 import com.hro_basti.underwatertrees.Plugin;
 import com.hro_basti.underwatertrees.i18n.Messages;
+import com.hro_basti.underwatertrees.load.LoadController;
+import com.hro_basti.underwatertrees.listeners.SaplingRules;
 import com.hro_basti.underwatertrees.listeners.UnderwaterSaplingsListener;
+import com.hro_basti.underwatertrees.scan.WorldScan;
+import com.hro_basti.underwatertrees.stats.HandlerStats;
+import com.hro_basti.underwatertrees.stats.LatencyHistogram;
+import com.hro_basti.underwatertrees.tracking.SaplingIndex;
 import io.papermc.paper.command.brigadier.BasicCommand;
 import io.papermc.paper.command.brigadier.CommandSourceStack;
-import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
-import org.jetbrains.annotations.Nullable;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class UnderwaterTreesBasicCommand implements BasicCommand {
+    private static final String PERM_RELOAD = "underwatertrees.reload";
+    private static final String PERM_STATS = "underwatertrees.stats";
+    private static final String PERM_SCAN = "underwatertrees.scan";
+    private static final int HOTSPOTS = 5;
+
     private final Plugin plugin;
     private final UnderwaterSaplingsListener listener;
 
@@ -21,24 +40,243 @@ public class UnderwaterTreesBasicCommand implements BasicCommand {
     @Override
     public void execute(CommandSourceStack source, String[] args) {
         Messages msg = plugin.getMessages();
+        CommandSender sender = source.getSender();
         if (args.length == 1 && args[0].equalsIgnoreCase("reload")) {
-            if (!source.getSender().hasPermission("underwatertrees.reload")) {
-                source.getSender().sendMessage(Component.text(msg.get("command.no_permission")).color(NamedTextColor.RED));
+            if (!sender.hasPermission(PERM_RELOAD)) {
+                sender.sendMessage(msg.component(sender, "command.no_permission", NamedTextColor.RED));
                 return;
             }
+            long start = System.nanoTime();
             plugin.reloadConfig();
             plugin.ensureConfigDefaults();
             listener.applyConfig(plugin.getConfig());
             plugin.reloadMessages();
+            listener.getStats().recordReload(System.nanoTime() - start);
             Messages msg2 = plugin.getMessages();
-            source.getSender().sendMessage(Component.text(msg2.get("command.reloaded")).color(NamedTextColor.GREEN));
+            sender.sendMessage(msg2.component(sender, "command.reloaded", NamedTextColor.GREEN));
+            return;
+        }
+        if ((args.length == 1 || args.length == 2) && args[0].equalsIgnoreCase("stats")) {
+            if (!sender.hasPermission(PERM_STATS)) {
+                sender.sendMessage(msg.component(sender, "command.no_permission", NamedTextColor.RED));
+                return;
+            }
+            if (args.length == 2 && args[1].equalsIgnoreCase("reset")) {
+                listener.getStats().reset();
+                sender.sendMessage(msg.component(sender, "stats.reset", NamedTextColor.GREEN));
+                return;
+            }
+            sendStats(sender, msg, listener.getStats());
+            return;
+        }
+        if (args.length == 1 && args[0].equalsIgnoreCase("hotspots")) {
+            if (!sender.hasPermission(PERM_STATS)) {
+                sender.sendMessage(msg.component(sender, "command.no_permission", NamedTextColor.RED));
+                return;
+            }
+            sendHotspots(sender, msg);
+            return;
+        }
+        if ((args.length == 2 || args.length == 3) && args[0].equalsIgnoreCase("scan")) {
+            if (!sender.hasPermission(PERM_SCAN)) {
+                sender.sendMessage(msg.component(sender, "command.no_permission", NamedTextColor.RED));
+                return;
+            }
+            scan(sender, msg, args);
+            return;
+        }
+        sender.sendMessage(msg.component(sender, "command.usage", Map.of("label", "underwatertrees"), NamedTextColor.YELLOW));
+    }
+
+    private void sendStats(CommandSender sender, Messages msg, HandlerStats s) {
+        long elapsed = System.nanoTime() - s.getSinceNanos();
+        sender.sendMessage(msg.component(sender, "stats.header", Map.of(
+                "duration", formatMinutes(elapsed),
+                "ticks", Long.toString(s.getTicks())), NamedTextColor.GOLD));
+        sender.sendMessage(msg.component(sender, "stats.placements", Map.of(
+                "accepted", Long.toString(s.getPlaced()),
+                "rejected", Long.toString(s.getRejectedTotal()),
+                "soil", Long.toString(s.getRejected(HandlerStats.Rejection.INVALID_SOIL)),
+                "chunk", Long.toString(s.getRejected(HandlerStats.Rejection.CHUNK_LIMIT)),
+                "region", Long.toString(s.getRejected(HandlerStats.Rejection.REGION_LIMIT))), NamedTextColor.GRAY));
+        sendEvents(sender, msg, "physics", s.getPhysicsInspected(), s.getPhysicsCancelled());
+        sendEvents(sender, msg, "fluid", s.getFluidInspected(), s.getFluidCancelled());
+        sendLatency(sender, msg, "place", s.getPlaceLatency());
+        sendLatency(sender, msg, "physics", s.getPhysicsLatency());
+        sendLatency(sender, msg, "fluid", s.getFluidLatency());
+        sendLatency(sender, msg, "grow", s.getGrowLatency());
+        sendLatency(sender, msg, "reload", s.getReloadLatency());
+        long perTick = s.getHandlerNanosPerTick();
+        sender.sendMessage(msg.component(sender, "stats.tick_share", Map.of(
+                "per_tick", formatNanos(perTick),
+                "percent", String.format(Locale.ROOT, "%.3f", perTick / 50_000_000.0 * 100.0)), NamedTextColor.GRAY));
+        LoadController load = plugin.getLoadController();
+        if (load != null && load.getSettings().enabled()) {
+            LoadController.Settings ls = load.getSettings();
+            sender.sendMessage(msg.component(sender, "stats.load", Map.of(
+                    "mode", load.getMode().name(),
+                    "duration", formatMinutes(System.nanoTime() - load.getModeSinceNanos()),
+                    "mspt", String.format(Locale.ROOT, "%.1f", load.getLastMspt()),
+                    "degrade", String.format(Locale.ROOT, "%.1f", ls.degradeAboveMspt()),
+                    "recover", String.format(Locale.ROOT, "%.1f", ls.recoverBelowMspt()),
+                    "switches", Long.toString(load.getSwitches())), load.isDegraded() ? NamedTextColor.YELLOW : NamedTextColor.GRAY));
+        }
+    }
+
+    private void scan(CommandSender sender, Messages msg, String[] args) {
+        WorldScan running = plugin.getWorldScan();
+        if (args[1].equalsIgnoreCase("cancel")) {
+            if (running == null) {
+                sender.sendMessage(msg.component(sender, "scan.idle", NamedTextColor.YELLOW));
+            } else {
+                running.cancel();
+            }
+            return;
+        }
+        if (running != null) {
+            sender.sendMessage(msg.component(sender, "scan.busy", Map.of("world", running.getWorld().getName()), NamedTextColor.YELLOW));
+            return;
+        }
+        World world = Bukkit.getWorld(args[1]);
+        if (world == null) {
+            sender.sendMessage(msg.component(sender, "scan.unknown_world", Map.of("world", args[1]), NamedTextColor.RED));
+            return;
+        }
+        int maxRadius = Math.max(0, plugin.getConfig().getInt("scan.max-radius", 256));
+        int radius = plugin.getConfig().getInt("scan.default-radius", 32);
+        if (args.length == 3) {
+            try {
+                radius = Integer.parseInt(args[2]);
+            } catch (NumberFormatException ex) {
+                sender.sendMessage(msg.component(sender, "command.usage", Map.of("label", "underwatertrees"), NamedTextColor.YELLOW));
+                return;
+            }
+        }
+        radius = Math.max(0, Math.min(radius, maxRadius));
+        WorldScan scan = plugin.startScan(world, radius, new ScanReporter(sender));
+        if (scan == null) return;
+        sender.sendMessage(msg.component(sender, "scan.started", Map.of(
+                "world", world.getName(),
+                "chunks", Integer.toString(scan.getTotalChunks()),
+                "radius", Integer.toString(radius)), NamedTextColor.GREEN));
+    }
+
+    // Reports to the sender that started the scan; messages are looked up when sent so a reload applies
+    private final class ScanReporter implements WorldScan.Progress {
+        private final CommandSender sender;
+
+        ScanReporter(CommandSender sender) {
+            this.sender = sender;
+        }
+
+        @Override
+        public void progress(WorldScan scan) {
+            sender.sendMessage(plugin.getMessages().component(sender, "scan.progress", counts(scan), NamedTextColor.GRAY));
+        }
+
+        @Override
+        public void finished(WorldScan scan) {
+            String key = scan.isCancelled() ? "scan.cancelled" : "scan.done";
+            sender.sendMessage(plugin.getMessages().component(sender, key, counts(scan), scan.isCancelled() ? NamedTextColor.YELLOW : NamedTextColor.GREEN));
+        }
+
+        private Map<String, String> counts(WorldScan scan) {
+            return Map.of(
+                    "world", scan.getWorld().getName(),
+                    "done", Integer.toString(scan.getDoneChunks()),
+                    "total", Integer.toString(scan.getTotalChunks()),
+                    "found", Long.toString(scan.getFound()),
+                    "chunks", Integer.toString(scan.getChunksWithSaplings()),
+                    "seconds", Long.toString(TimeUnit.NANOSECONDS.toSeconds(scan.getElapsedNanos())));
+        }
+    }
+
+    // Index counters only: no chunk access, safe from any thread
+    private void sendHotspots(CommandSender sender, Messages msg) {
+        SaplingIndex index = listener.getRegistry().getIndex();
+        List<SaplingIndex.Hotspot> chunks = index.hotspots(false, HOTSPOTS);
+        if (chunks.isEmpty()) {
+            sender.sendMessage(msg.component(sender, "hotspots.none", NamedTextColor.GRAY));
             return;
         }
-        source.getSender().sendMessage(Component.text(msg.get("command.usage", java.util.Map.of("label", "underwatertrees"))).color(NamedTextColor.YELLOW));
+        SaplingRules r = listener.getRules();
+        sender.sendMessage(msg.component(sender, "hotspots.chunks", Map.of("cap", formatCap(r.maxPerChunk())), NamedTextColor.GOLD));
+        for (SaplingIndex.Hotspot h : chunks) sendHotspot(sender, msg, h, 4);
+        sender.sendMessage(msg.component(sender, "hotspots.regions", Map.of("cap", formatCap(r.maxPerRegion())), NamedTextColor.GOLD));
+        for (SaplingIndex.Hotspot h : index.hotspots(true, HOTSPOTS)) sendHotspot(sender, msg, h, 4 + SaplingIndex.REGION_SHIFT);
+        HandlerStats s = listener.getStats();
+        sender.sendMessage(msg.component(sender, "hotspots.refused", Map.of(
+                "chunk", Long.toString(s.getRejected(HandlerStats.Rejection.CHUNK_LIMIT)),
+                "region", Long.toString(s.getRejected(HandlerStats.Rejection.REGION_LIMIT))), NamedTextColor.GRAY));
+    }
+
+    private void sendHotspot(CommandSender sender, Messages msg, SaplingIndex.Hotspot h, int blockShift) {
+        sender.sendMessage(msg.component(sender, "hotspots.entry", Map.of(
+                "world", h.world().getName(),
+                "x", Integer.toString(h.x()),
+                "z", Integer.toString(h.z()),
+                "bx", Integer.toString(h.x() << blockShift),
+                "bz", Integer.toString(h.z() << blockShift),
+                "count", Integer.toString(h.count())), NamedTextColor.GRAY));
+    }
+
+    private static String formatCap(int cap) {
+        return cap > 0 ? Integer.toString(cap) : "∞";
+    }
+
+    private void sendEvents(CommandSender sender, Messages msg, String handler, long inspected, long cancelled) {
+        sender.sendMessage(msg.component(sender, "stats.events", Map.of(
+                "handler", handler,
+                "inspected", Long.toString(inspected),
+                "cancelled", Long.toString(cancelled)), NamedTextColor.GRAY));
+    }
+
+    private void sendLatency(CommandSender sender, Messages msg, String handler, LatencyHistogram h) {
+        sender.sendMessage(msg.component(sender, "stats.latency", Map.of(
+                "handler", handler,
+                "p50", formatNanos(h.percentile(0.50)),
+                "p99", formatNanos(h.percentile(0.99)),
+                "max", formatNanos(h.maxNanos()),
+                "count", Long.toString(h.count())), NamedTextColor.GRAY));
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000L) return nanos + " ns";
+        if (nanos < 1_000_000L) return String.format(Locale.ROOT, "%.1f µs", nanos / 1_000.0);
+        if (nanos < 1_000_000_000L) return String.format(Locale.ROOT, "%.2f ms", nanos / 1_000_000.0);
+        return String.format(Locale.ROOT, "%.2f s", nanos / 1_000_000_000.0);
+    }
+
+    private static String formatMinutes(long nanos) {
+        return TimeUnit.NANOSECONDS.toMinutes(nanos) + " min";
+    }
+
+    @Override
+    public Collection<String> suggest(CommandSourceStack source, String[] args) {
+        CommandSender sender = source.getSender();
+        List<String> out = new ArrayList<>();
+        if (args.length <= 1) {
+            String prefix = args.length == 0 ? "" : args[0].toLowerCase(Locale.ROOT);
+            if (sender.hasPermission(PERM_RELOAD) && "reload".startsWith(prefix)) out.add("reload");
+            if (sender.hasPermission(PERM_STATS) && "stats".startsWith(prefix)) out.add("stats");
+            if (sender.hasPermission(PERM_STATS) && "hotspots".startsWith(prefix)) out.add("hotspots");
+            if (sender.hasPermission(PERM_SCAN) && "scan".startsWith(prefix)) out.add("scan");
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("scan") && sender.hasPermission(PERM_SCAN)) {
+            String prefix = args[1].toLowerCase(Locale.ROOT);
+            if ("cancel".startsWith(prefix)) out.add("cancel");
+            for (World w : Bukkit.getWorlds()) {
+                if (w.getName().toLowerCase(Locale.ROOT).startsWith(prefix)) out.add(w.getName());
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("stats") && sender.hasPermission(PERM_STATS)
+                && "reset".startsWith(args[1].toLowerCase(Locale.ROOT))) {
+            out.add("reset");
+        }
+        return out;
     }
 
+    // Either permission unlocks the command; each subcommand checks its own
     @Override
-    public @Nullable String permission() {
-        return "underwatertrees.reload";
+    public boolean canUse(CommandSender sender) {
+        return sender.hasPermission(PERM_RELOAD) || sender.hasPermission(PERM_STATS) || sender.hasPermission(PERM_SCAN);
     }
 }
@@ -0,0 +1,118 @@
+package com.hro_basti.underwatertrees.config;
+
+import com.hro_basti.underwatertrees.Plugin;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+// Watches config.yml via WatchService on a virtual thread. Bursts of writes (editors often save in
+// several steps) are debounced, then the file is parsed and compiled off-thread and only the
+// finished PreparedReload is passed to the global region thread. Changes are detected by content
+// hash, so touching the file or the plugin's own saves never cause a reload.
+public class ConfigWatcher implements AutoCloseable {
+
+    private static final long DEBOUNCE_MS = 500L;
+
+    private final Plugin plugin;
+    private final Path dir;
+    private final Path fileName;
+    private volatile WatchService watchService;
+    private Thread thread;
+
+    public ConfigWatcher(Plugin plugin, Path configFile) {
+        this.plugin = plugin;
+        this.dir = configFile.toAbsolutePath().getParent();
+        this.fileName = configFile.getFileName();
+    }
+
+    public synchronized void start() throws IOException {
+        if (thread != null) return;
+        WatchService ws = FileSystems.getDefault().newWatchService();
+        dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watchService = ws;
+        thread = Thread.ofVirtual().name("UnderwaterTrees-ConfigWatcher").start(this::run);
+    }
+
+    @Override
+    public synchronized void close() {
+        WatchService ws = watchService;
+        watchService = null;
+        if (ws != null) {
+            try {
+                ws.close();
+            } catch (IOException ignored) {}
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return watchService != null;
+    }
+
+    private void run() {
+        WatchService ws = watchService;
+        try {
+            while (ws != null && watchService == ws) {
+                WatchKey key = ws.take();
+                boolean relevant = drain(key);
+                // Debounce: keep collecting until the directory has been quiet for DEBOUNCE_MS
+                WatchKey next;
+                while ((next = ws.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= drain(next);
+                }
+                if (relevant) reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // Closed on disable or when auto-reload was switched off
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+            } else if (fileName.equals(event.context())) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    private void reload() {
+        PreparedReload prepared;
+        try {
+            byte[] content = Files.readAllBytes(dir.resolve(fileName));
+            // Same bytes as last loaded or written by the plugin itself: nothing to do
+            if (plugin.isCurrentConfig(content)) return;
+            prepared = plugin.prepareReload(content);
+        } catch (NoSuchFileException ex) {
+            // Deleted or mid-rename; the following create event triggers a new attempt
+            return;
+        } catch (Exception ex) {
+            plugin.getLogger().warning("config.yml could not be loaded, keeping previous configuration: " + ex.getMessage());
+            return;
+        }
+        plugin.getScheduler().runGlobal(() -> {
+            try {
+                plugin.applyReload(prepared);
+                plugin.getLogger().info("Config file changed externally – auto reloaded.");
+            } catch (Exception ex) {
+                plugin.getLogger().warning("Error during auto-reload: " + ex.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,25 @@
+package com.hro_basti.underwatertrees.config;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+// SHA-256 of file contents; used to tell real edits apart from mtime-only changes and our own writes
+public final class ContentHash {
+
+    private ContentHash() {
+    }
+
+    public static byte[] of(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static boolean matches(byte[] hash, byte[] content) {
+        return hash != null && Arrays.equals(hash, of(content));
+    }
+}
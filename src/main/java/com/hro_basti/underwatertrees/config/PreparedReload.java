@@ -0,0 +1,12 @@
+package com.hro_basti.underwatertrees.config;
+
+import com.hro_basti.underwatertrees.i18n.Messages;
+import com.hro_basti.underwatertrees.listeners.SaplingRules;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+// Result of parsing and compiling config.yml off-thread; handed to the global thread as a whole.
+// The config instance is owned by the receiver from here on and must not be touched by the watcher.
+// prepareNanos is the off-thread build time, reported together with the apply step.
+public record PreparedReload(YamlConfiguration config, SaplingRules rules, Messages.Bundle messages, byte[] contentHash,
+                             long prepareNanos) {
+}
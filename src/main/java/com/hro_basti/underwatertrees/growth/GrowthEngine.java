@@ -0,0 +1,300 @@
+package com.hro_basti.underwatertrees.growth;
+
+import com.hro_basti.underwatertrees.listeners.SaplingRules;
+import com.hro_basti.underwatertrees.listeners.UnderwaterTreeGrowListener;
+import com.hro_basti.underwatertrees.scheduler.PluginScheduler;
+import com.hro_basti.underwatertrees.tracking.SaplingIndex;
+import com.hro_basti.underwatertrees.tracking.SaplingRegistry;
+import org.bukkit.Material;
+import org.bukkit.TreeType;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.Sapling;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+// Optional growth for saplings placed by the plugin. Protection cancels physics around them, which
+// costs them some vanilla growth, so the engine walks all tracked saplings round-robin and advances
+// them at (a multiple of) the vanilla rate.
+// Work is bounded by a per-tick nanosecond budget: every tick adds one budget to a credit, unused
+// credit carries over up to a cap, and overruns (a tree generating) are paid back on later ticks.
+// tick() runs on the global region thread. On Paper saplings are visited inline; on Folia whole
+// chunks are handed to their region thread and charged up front from a running cost estimate.
+public class GrowthEngine {
+
+    // Vanilla: randomTickSpeed (3) blocks of 4096 per section per tick, then a 1-in-7 roll per stage
+    private static final double VANILLA_STAGE_CHANCE_PER_TICK = 3.0 / 4096.0 / 7.0;
+    private static final int MIN_LIGHT = 9;
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final Logger logger;
+    private final SaplingRegistry registry;
+    private final SaplingIndex index;
+    private final Supplier<SaplingRules> rules;
+    private final UnderwaterTreeGrowListener trees;
+    // Null runs everything inline (benchmarks, tools)
+    private final PluginScheduler scheduler;
+    private final boolean regionised;
+    private volatile Settings settings = Settings.DISABLED;
+
+    // Round-robin cursor; global region thread only
+    private List<World> roundWorlds = List.of();
+    private int worldCursor;
+    private World chunkWorld;
+    private long[] chunkKeys = new long[0];
+    private int chunkCursor;
+    private int chunkX;
+    private int chunkZ;
+    private int[] positions = NO_POSITIONS;
+    private int positionCursor;
+    private long tick;
+    private long roundStartTick = -1;
+    // Read by the metrics exporter
+    private volatile long lastRoundTicks = 1;
+    private long creditNanos;
+
+    // Folia: estimated cost of one visit, refined by the region tasks
+    private volatile long nanosPerVisit = 2_000L;
+
+    private final LongAdder visited = new LongAdder();
+    private final LongAdder advanced = new LongAdder();
+    private final LongAdder treesGrown = new LongAdder();
+
+    public GrowthEngine(Logger logger, SaplingRegistry registry, Supplier<SaplingRules> rules,
+                        UnderwaterTreeGrowListener trees, PluginScheduler scheduler) {
+        this.logger = logger;
+        this.registry = registry;
+        this.index = registry.getIndex();
+        this.rules = rules;
+        this.trees = trees;
+        this.scheduler = scheduler;
+        this.regionised = scheduler != null && PluginScheduler.isFolia();
+    }
+
+    public record Settings(boolean enabled, double speed, long budgetNanos, long maxCreditNanos) {
+        static final Settings DISABLED = new Settings(false, 0.0, 0L, 0L);
+
+        public static Settings read(ConfigurationSection cfg) {
+            long budget = Math.max(1L, cfg.getLong("growth.tick-budget-micros", 200L)) * 1_000L;
+            long carry = Math.max(1L, cfg.getLong("growth.max-carry-over-ticks", 20L));
+            return new Settings(cfg.getBoolean("growth.enabled", false),
+                    Math.max(0.0, cfg.getDouble("growth.speed", 1.0)), budget, budget * carry);
+        }
+    }
+
+    public void applyConfig(ConfigurationSection cfg) {
+        Settings s = Settings.read(cfg);
+        settings = s;
+        if (s.enabled() && cfg.getBoolean("log-stats", true)) {
+            logger.info(String.format(java.util.Locale.ROOT, "Growth engine: %.2fx speed, %d µs per tick budget.",
+                    s.speed(), s.budgetNanos() / 1_000L));
+        }
+    }
+
+    // Called once per tick by a global-region timer
+    public void tick() {
+        Settings s = settings;
+        tick++;
+        if (!s.enabled()) return;
+        creditNanos = Math.min(creditNanos + s.budgetNanos(), s.maxCreditNanos());
+        if (creditNanos <= 0) return;
+        double chance = Math.min(1.0, s.speed() * VANILLA_STAGE_CHANCE_PER_TICK * lastRoundTicks);
+        if (regionised) {
+            dispatchChunks(chance);
+        } else {
+            visitInline(chance);
+        }
+    }
+
+    private void visitInline(double chance) {
+        SaplingRules r = rules.get();
+        long start = System.nanoTime();
+        long deadline = start + creditNanos;
+        while (true) {
+            if (positionCursor >= positions.length && !nextChunk()) break;
+            int p = positions[positionCursor++];
+            visit(r, chunkWorld, (chunkX << 4) + SaplingIndex.unpackX(p), SaplingIndex.unpackY(p),
+                    (chunkZ << 4) + SaplingIndex.unpackZ(p), chance);
+            if (System.nanoTime() >= deadline) break;
+        }
+        creditNanos -= System.nanoTime() - start;
+    }
+
+    // Folia: blocks may only be touched on their region thread, so whole chunks are handed over
+    private void dispatchChunks(double chance) {
+        while (creditNanos > 0 && nextChunk()) {
+            World world = chunkWorld;
+            int cx = chunkX, cz = chunkZ;
+            int[] batch = positions;
+            positionCursor = positions.length;
+            creditNanos -= batch.length * nanosPerVisit;
+            scheduler.runAt(world, cx, cz, () -> {
+                long start = System.nanoTime();
+                SaplingRules r = rules.get();
+                for (int p : batch) {
+                    visit(r, world, (cx << 4) + SaplingIndex.unpackX(p), SaplingIndex.unpackY(p),
+                            (cz << 4) + SaplingIndex.unpackZ(p), chance);
+                }
+                long perVisit = (System.nanoTime() - start) / Math.max(1, batch.length);
+                // Moving average; races between regions only blur the estimate
+                nanosPerVisit = (nanosPerVisit * 7 + perVisit) / 8;
+            });
+        }
+    }
+
+    // Move the cursor to the next tracked chunk; a new round starts at most once per tick
+    private boolean nextChunk() {
+        while (true) {
+            if (chunkCursor < chunkKeys.length) {
+                long key = chunkKeys[chunkCursor++];
+                chunkX = SaplingIndex.chunkX(key);
+                chunkZ = SaplingIndex.chunkZ(key);
+                positions = index.packedPositions(chunkWorld, chunkX, chunkZ);
+                positionCursor = 0;
+                if (positions.length > 0) return true;
+                continue;
+            }
+            if (worldCursor < roundWorlds.size()) {
+                chunkWorld = roundWorlds.get(worldCursor++);
+                chunkKeys = index.chunkKeys(chunkWorld);
+                chunkCursor = 0;
+                continue;
+            }
+            if (roundStartTick == tick) return false;
+            if (roundStartTick >= 0) lastRoundTicks = Math.max(1L, tick - roundStartTick);
+            roundStartTick = tick;
+            roundWorlds = index.worlds();
+            worldCursor = 0;
+            chunkKeys = new long[0];
+            chunkCursor = 0;
+            if (roundWorlds.isEmpty()) return false;
+        }
+    }
+
+    private void visit(SaplingRules r, World world, int x, int y, int z, double chance) {
+        // Untracked since the chunk was listed, or chunk unloaded: never load chunks from here
+        if (!index.contains(world, x, y, z)) return;
+        visited.increment();
+        if (ThreadLocalRandom.current().nextDouble() >= chance) return;
+        Block b = world.getBlockAt(x, y, z);
+        if (!r.isSapling(b.getType())) {
+            registry.untrack(b);
+            return;
+        }
+        if (b.getRelative(BlockFace.UP).getLightLevel() < MIN_LIGHT) return;
+        if (b.getBlockData() instanceof Sapling s && s.getStage() < s.getMaximumStage()) {
+            s.setStage(s.getStage() + 1);
+            b.setBlockData(s, false);
+            advanced.increment();
+            return;
+        }
+        // Final stage: a tree, every time. Bone meal would only advance with a chance and fire
+        // fertilize events as if a player had used it.
+        if (growTree(b)) treesGrown.increment();
+    }
+
+    // Like vanilla sapling growth: the sapling (all four for a 2x2 tree) is taken out, the feature is
+    // generated, and the sapling is put back if it did not fit. The generated blocks are collected
+    // instead of placed and go through the batched tree writer, which also untracks the saplings.
+    private boolean growTree(Block b) {
+        Material type = b.getType();
+        Block corner = megaCorner(b, type);
+        TreeType tree = corner != null ? megaTree(type) : null;
+        List<Block> saplings;
+        if (tree != null) {
+            saplings = List.of(corner, corner.getRelative(1, 0, 0), corner.getRelative(0, 0, 1), corner.getRelative(1, 0, 1));
+        } else {
+            corner = b;
+            tree = singleTree(type);
+            saplings = List.of(b);
+        }
+        // Dark oak and pale oak only grow as 2x2
+        if (tree == null) return false;
+
+        List<BlockData> before = new ArrayList<>(saplings.size());
+        for (Block s : saplings) {
+            before.add(s.getBlockData());
+            // Tracked saplings were planted in water; the feature may replace water but not saplings
+            s.setType(index.contains(s) ? Material.WATER : Material.AIR, false);
+        }
+        List<BlockState> states = new ArrayList<>();
+        boolean grown = b.getWorld().generateTree(corner.getLocation(), ThreadLocalRandom.current(), tree, state -> {
+            states.add(state);
+            return false;
+        });
+        if (!grown || states.isEmpty()) {
+            for (int i = 0; i < saplings.size(); i++) saplings.get(i).setBlockData(before.get(i), false);
+            return false;
+        }
+        trees.writeTree(states);
+        return true;
+    }
+
+    // North-west corner of a 2x2 of the same sapling containing b, checked in vanilla's order
+    private static Block megaCorner(Block b, Material type) {
+        for (int dx = 0; dx >= -1; dx--) {
+            for (int dz = 0; dz >= -1; dz--) {
+                Block c = b.getRelative(dx, 0, dz);
+                if (c.getType() == type && c.getRelative(1, 0, 0).getType() == type
+                        && c.getRelative(0, 0, 1).getType() == type && c.getRelative(1, 0, 1).getType() == type) {
+                    return c;
+                }
+            }
+        }
+        return null;
+    }
+
+    // The plain variant of each tree; vanilla's random extras (fancy oak, bees, pine) are left out
+    private static TreeType singleTree(Material sapling) {
+        return switch (sapling) {
+            case OAK_SAPLING -> TreeType.TREE;
+            case SPRUCE_SAPLING -> TreeType.REDWOOD;
+            case BIRCH_SAPLING -> TreeType.BIRCH;
+            case JUNGLE_SAPLING -> TreeType.SMALL_JUNGLE;
+            case ACACIA_SAPLING -> TreeType.ACACIA;
+            case CHERRY_SAPLING -> TreeType.CHERRY;
+            case MANGROVE_PROPAGULE -> TreeType.MANGROVE;
+            default -> null;
+        };
+    }
+
+    private static TreeType megaTree(Material sapling) {
+        return switch (sapling) {
+            case SPRUCE_SAPLING -> TreeType.MEGA_REDWOOD;
+            case JUNGLE_SAPLING -> TreeType.JUNGLE;
+            case DARK_OAK_SAPLING -> TreeType.DARK_OAK;
+            case PALE_OAK_SAPLING -> TreeType.PALE_OAK;
+            default -> null;
+        };
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    public long getVisited() {
+        return visited.sum();
+    }
+
+    public long getStagesAdvanced() {
+        return advanced.sum();
+    }
+
+    public long getTreesGrown() {
+        return treesGrown.sum();
+    }
+
+    // Ticks the last full pass over all tracked saplings took
+    public long getLastRoundTicks() {
+        return lastRoundTicks;
+    }
+}
@@ -0,0 +1,106 @@
+package com.hro_basti.underwatertrees.i18n;
+
+import com.hro_basti.underwatertrees.config.ContentHash;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// A bundled language file precompiled at build time (compileLanguages task in build.gradle, which
+// runs main): the string entries of lang/<code>.yml as Messages sees them, plus the SHA-256 of the
+// YAML source so an unedited copy in the data folder is recognised and needs no YAML parse either.
+//
+// lang/<code>.bin: "UWTL" version(int) hash(length byte + bytes) count(int), then per entry key and
+// value as DataOutput.writeUTF; entries sorted by key so the output is reproducible.
+public record CompiledLanguage(byte[] sourceHash, Map<String, String> strings) {
+
+    private static final byte[] MAGIC = "UWTL".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+
+    static CompiledLanguage compile(byte[] yamlSource) throws InvalidConfigurationException {
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.loadFromString(new String(yamlSource, StandardCharsets.UTF_8));
+        return new CompiledLanguage(ContentHash.of(yamlSource), strings(yaml));
+    }
+
+    // Dotted keys to string values; sections and non-string values are not messages
+    static Map<String, String> strings(YamlConfiguration yaml) {
+        Map<String, String> out = new HashMap<>();
+        for (String key : yaml.getKeys(true)) {
+            if (!yaml.isString(key)) continue;
+            String value = yaml.getString(key);
+            if (value != null) out.put(key, value);
+        }
+        return Map.copyOf(out);
+    }
+
+    boolean isCompiledFrom(byte[] yamlSource) {
+        return ContentHash.matches(sourceHash, yamlSource);
+    }
+
+    static CompiledLanguage read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        byte[] magic = data.readNBytes(MAGIC.length);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a compiled language bundle");
+        int version = data.readInt();
+        if (version != VERSION) throw new IOException("Unsupported language bundle version " + version);
+        byte[] hash = data.readNBytes(data.readUnsignedByte());
+        int count = data.readInt();
+        Map<String, String> strings = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            strings.put(data.readUTF(), data.readUTF());
+        }
+        return new CompiledLanguage(hash, Map.copyOf(strings));
+    }
+
+    void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(MAGIC);
+        data.writeInt(VERSION);
+        data.writeByte(sourceHash.length);
+        data.write(sourceHash);
+        data.writeInt(strings.size());
+        for (Map.Entry<String, String> e : new TreeMap<>(strings).entrySet()) {
+            data.writeUTF(e.getKey());
+            data.writeUTF(e.getValue());
+        }
+        data.flush();
+    }
+
+    // Build step: CompiledLanguage <output dir> <lang file.yml>...
+    public static void main(String[] args) throws IOException, InvalidConfigurationException {
+        File outDir = new File(args[0]);
+        Files.createDirectories(outDir.toPath());
+        File[] stale = outDir.listFiles((dir, name) -> name.endsWith(".bin"));
+        if (stale != null) {
+            for (File f : stale) Files.delete(f.toPath());
+        }
+        for (int i = 1; i < args.length; i++) {
+            File source = new File(args[i]);
+            String name = source.getName();
+            CompiledLanguage compiled;
+            try {
+                compiled = compile(Files.readAllBytes(source.toPath()));
+            } catch (InvalidConfigurationException ex) {
+                // Fail the build rather than ship a language that would only break at runtime
+                throw new InvalidConfigurationException(name + ": " + ex.getMessage());
+            }
+            File target = new File(outDir, name.substring(0, name.length() - ".yml".length()) + ".bin");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target.toPath()))) {
+                compiled.write(out);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.hro_basti.underwatertrees.i18n;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.TextColor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// One language entry, split once at load time into literal text and {placeholder} segments.
+// Rendering is a single pass over the segments with one map lookup per placeholder; placeholders
+// without a value are kept verbatim. Entries without placeholders also cache their Component.
+public final class MessageTemplate {
+
+    private final String raw;
+    // literals.length == names.length + 1: literal, name, literal, name, ..., literal
+    private final String[] literals;
+    private final String[] names;
+    private volatile Cached cached;
+
+    private record Cached(TextColor color, Component component) {
+    }
+
+    private MessageTemplate(String raw, String[] literals, String[] names) {
+        this.raw = raw;
+        this.literals = literals;
+        this.names = names;
+    }
+
+    public static MessageTemplate parse(String raw) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int from = 0;
+        int open = raw.indexOf('{');
+        while (open >= 0) {
+            int close = raw.indexOf('}', open + 1);
+            if (close < 0) break;
+            String name = raw.substring(open + 1, close);
+            if (isName(name)) {
+                literals.add(raw.substring(from, open));
+                names.add(name);
+                from = close + 1;
+                open = raw.indexOf('{', from);
+            } else {
+                // Not a placeholder (e.g. "{braces}" with spaces); keep scanning after this brace
+                open = raw.indexOf('{', open + 1);
+            }
+        }
+        literals.add(raw.substring(from));
+        return new MessageTemplate(raw, literals.toArray(new String[0]), names.toArray(new String[0]));
+    }
+
+    private static boolean isName(String s) {
+        if (s.isEmpty()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_' || c == '-')) return false;
+        }
+        return true;
+    }
+
+    public boolean hasPlaceholders() {
+        return names.length > 0;
+    }
+
+    public String raw() {
+        return raw;
+    }
+
+    public void render(Map<String, String> values, StringBuilder out) {
+        out.append(literals[0]);
+        for (int i = 0; i < names.length; i++) {
+            String v = values != null ? values.get(names[i]) : null;
+            if (v != null) {
+                out.append(v);
+            } else {
+                out.append('{').append(names[i]).append('}');
+            }
+            out.append(literals[i + 1]);
+        }
+    }
+
+    // Cached per template; callers almost always use one colour per key, so a single slot suffices
+    public Component component(TextColor color) {
+        Cached c = cached;
+        if (c != null && c.color() == color) return c.component();
+        Component component = Component.text(raw, color);
+        cached = new Cached(color, component);
+        return component;
+    }
+}
@@ -1,97 +1,360 @@
 package com.hro_basti.underwatertrees.i18n;
 
 import com.hro_basti.underwatertrees.Plugin;
+import com.hro_basti.underwatertrees.io.Storage;
+import com.hro_basti.underwatertrees.io.WriteBehind;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.TextColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.logging.Logger;
 
+// Language bundles: lang/<code>.yml over the bundled en_US defaults, compiled into MessageTemplates
+// when loaded. Lookups are a map get; no YAML access after load. Bundled languages, and data-folder
+// copies nobody edited, come from the build-time CompiledLanguage form; only edited files are parsed.
+// The server language is always resident. With per-player messages enabled, other languages are
+// loaded on first use for a player's client locale and kept in a small LRU, so memory stays bounded
+// however many locales are online.
 public class Messages {
 
-    private final Plugin plugin;
+    public static final List<String> BUNDLED = List.of("ar_SA", "de_DE", "en_US", "es_ES", "fr_FR", "it_IT", "ja_JP",
+            "ko_KR", "nl_NL", "pl_PL", "pt_PT", "tr_TR", "uk_UA", "zh_CN");
+    private static final String DEFAULT_LANGUAGE = "en_US";
+    // Client locales are arbitrary strings; their resolved codes are cached up to this many
+    private static final int MAX_LOCALES = 256;
+
+    // Rendering scratch space; trimmed when a huge message inflated it
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
     private final File langDir;
-    private YamlConfiguration messages;
-    private YamlConfiguration defaults;
-    private String language;
+    private final Logger logger;
+    // Bundled resources (plugin jar); lang/<name>.yml
+    private final Function<String, InputStream> resources;
+    // Volatile: messages are read from region threads on Folia while a reload swaps them
+    private volatile Bundle current = new Bundle(DEFAULT_LANGUAGE, Map.of(), Map.of());
+    private volatile boolean perPlayer;
+    private volatile int cacheSize = 4;
+    private volatile Set<String> available = Set.of();
+    // Access-ordered LRU of lazily loaded languages; guarded by itself
+    private final LinkedHashMap<String, Map<String, MessageTemplate>> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Locale, String> localeCodes = new ConcurrentHashMap<>();
 
     public Messages(Plugin plugin, String language) {
-        this.plugin = plugin;
-        this.langDir = new File(plugin.getDataFolder(), "lang");
-        if (!langDir.exists()) {
-            // create folder and copy defaults
-            langDir.mkdirs();
-        }
-        ensureDefaultLangFile("en_US.yml");
-        ensureDefaultLangFile("de_DE.yml");
+        this(plugin.getDataFolder(), plugin.getLogger(), plugin::getResource, plugin.getWriter(), language);
+    }
+
+    // No live plugin needed (benchmarks, tools); default files are written inline
+    public Messages(File dataFolder, Logger logger, Function<String, InputStream> resources, String language) {
+        this(dataFolder, logger, resources, WriteBehind.direct(Storage.DISK, logger), language);
+    }
+
+    public Messages(File dataFolder, Logger logger, Function<String, InputStream> resources, WriteBehind writer,
+                    String language) {
+        this.langDir = new File(dataFolder, "lang");
+        this.logger = logger;
+        this.resources = resources;
+        // Copies of the defaults for editing; until they land, the same content is read from the jar
+        ensureDefaultLangFile(writer, "en_US.yml");
+        ensureDefaultLangFile(writer, "de_DE.yml");
         setLanguage(language);
     }
 
-    private void ensureDefaultLangFile(String name) {
-        File f = new File(langDir, name);
-        if (!f.exists()) {
-            String resourcePath = "lang/" + name;
-            if (plugin.getResource(resourcePath) != null) {
-                plugin.saveResource(resourcePath, false);
-            }
+    private void ensureDefaultLangFile(WriteBehind writer, String name) {
+        try (InputStream in = resources.apply("lang/" + name)) {
+            if (in != null) writer.writeIfAbsent(new File(langDir, name).toPath(), in.readAllBytes());
+        } catch (IOException e) {
+            logger.warning("Failed to save default language file " + name + ": " + e.getMessage());
+        }
+    }
+
+    // Per-player resolution and the number of extra languages kept loaded. At least one: with none,
+    // every message to a player in another language would re-read and re-compile that language.
+    public void configure(boolean perPlayer, int cacheSize) {
+        this.perPlayer = perPlayer;
+        this.cacheSize = Math.max(1, cacheSize);
+        synchronized (cache) {
+            trim();
         }
     }
 
     public void setLanguage(String language) {
-        this.language = language;
-        // Load defaults (from resource en_US.yml)
-        this.defaults = loadFromResource("lang/en_US.yml");
-
-        // Try load selected language from file; fallback to resource; fallback to defaults
-        File file = new File(langDir, language + ".yml");
-        if (file.exists()) {
-            this.messages = YamlConfiguration.loadConfiguration(file);
-        } else {
-            this.messages = loadFromResource("lang/" + language + ".yml");
-            if (this.messages == null) {
-                this.messages = new YamlConfiguration();
+        apply(load(language));
+    }
+
+    // Parse a language bundle without publishing it; safe to call off the main thread
+    public Bundle load(String language) {
+        MessagesLoadEvent jfr = MessagesLoadEvent.start(language, false);
+        // Read once: it is both the defaults and, for en_US, the bundle an unedited file is checked against
+        CompiledLanguage bundledDefault = loadCompiled(DEFAULT_LANGUAGE);
+        Map<String, MessageTemplate> defaults = compile(loadBundled(DEFAULT_LANGUAGE, bundledDefault));
+        boolean isDefault = language.equals(DEFAULT_LANGUAGE);
+        Bundle bundle = new Bundle(language, isDefault && !fileFor(language).exists() ? defaults
+                : merge(loadLanguage(language, isDefault ? bundledDefault : loadCompiled(language)), defaults), defaults);
+        jfr.finish(bundle.templates().size());
+        return bundle;
+    }
+
+    // Selected language from file; fallback to resource; fallback to defaults only. A data-folder
+    // file that is still the bundled copy is read from the precompiled bundle, not parsed.
+    // compiled: the language's precompiled bundle, null when the jar has none
+    private Map<String, String> loadLanguage(String language, CompiledLanguage compiled) {
+        File file = fileFor(language);
+        if (!file.exists()) return loadBundled(language, compiled);
+        byte[] source;
+        try {
+            source = Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            logger.warning("Failed to read language file " + file.getName() + ": " + e.getMessage());
+            return loadBundled(language, compiled);
+        }
+        if (compiled != null && compiled.isCompiledFrom(source)) return compiled.strings();
+        YamlConfiguration yaml = new YamlConfiguration();
+        try {
+            yaml.loadFromString(new String(source, StandardCharsets.UTF_8));
+        } catch (InvalidConfigurationException e) {
+            logger.warning("Invalid language file " + file.getName() + ", using defaults: " + e.getMessage());
+            return Map.of();
+        }
+        return CompiledLanguage.strings(yaml);
+    }
+
+    private File fileFor(String language) {
+        return new File(langDir, language + ".yml");
+    }
+
+    private static Map<String, MessageTemplate> compile(Map<String, String> strings) {
+        if (strings == null) return Map.of();
+        Map<String, MessageTemplate> out = new HashMap<>();
+        for (Map.Entry<String, String> e : strings.entrySet()) {
+            out.put(e.getKey(), MessageTemplate.parse(e.getValue()));
+        }
+        return Map.copyOf(out);
+    }
+
+    // Missing keys fall back to the default language; default templates are shared, not re-parsed
+    private static Map<String, MessageTemplate> merge(Map<String, String> own, Map<String, MessageTemplate> defaults) {
+        Map<String, MessageTemplate> out = new HashMap<>(defaults);
+        out.putAll(compile(own));
+        return Map.copyOf(out);
+    }
+
+    // Publish a fully built bundle; lazily loaded languages are dropped so edited files are re-read
+    public void apply(Bundle bundle) {
+        this.current = bundle;
+        this.available = scanAvailable();
+        synchronized (cache) {
+            cache.clear();
+        }
+        localeCodes.clear();
+    }
+
+    // templates: the language merged over defaults; defaults: the bundled en_US templates
+    public record Bundle(String language, Map<String, MessageTemplate> templates, Map<String, MessageTemplate> defaults) {
+    }
+
+    private Set<String> scanAvailable() {
+        Set<String> out = new TreeSet<>(BUNDLED);
+        String[] files = langDir.list((dir, name) -> name.endsWith(".yml"));
+        if (files != null) {
+            for (String f : files) out.add(f.substring(0, f.length() - 4));
+        }
+        return Collections.unmodifiableSet(out);
+    }
+
+    // Language code for a client locale: exact match, then same language, then the server language
+    String codeFor(Locale locale) {
+        Bundle b = current;
+        if (!perPlayer || locale == null) return b.language();
+        String code = localeCodes.get(locale);
+        if (code != null) return code;
+        code = resolve(locale, b.language());
+        if (localeCodes.size() >= MAX_LOCALES) localeCodes.clear();
+        localeCodes.put(locale, code);
+        return code;
+    }
+
+    private String resolve(Locale locale, String fallback) {
+        String lang = locale.getLanguage();
+        if (lang.isEmpty()) return fallback;
+        Set<String> codes = available;
+        String exact = lang + "_" + locale.getCountry();
+        if (codes.contains(exact)) return exact;
+        if (fallback.startsWith(lang + "_")) return fallback;
+        for (String c : codes) {
+            if (c.startsWith(lang + "_")) return c;
+        }
+        return fallback;
+    }
+
+    private Map<String, MessageTemplate> templatesFor(String code) {
+        Bundle b = current;
+        if (code.equals(b.language())) return b.templates();
+        Map<String, MessageTemplate> t;
+        synchronized (cache) {
+            t = cache.get(code);
+        }
+        if (t != null) return t;
+        // Parsed outside the lock; two threads racing for the same language both parse, one wins
+        MessagesLoadEvent jfr = MessagesLoadEvent.start(code, true);
+        t = merge(loadLanguage(code, loadCompiled(code)), b.defaults());
+        jfr.finish(t.size());
+        synchronized (cache) {
+            if (current == b) {
+                cache.put(code, t);
+                trim();
             }
         }
-        if (this.defaults != null) {
-            this.messages.setDefaults(this.defaults);
-            this.messages.options().copyDefaults(true);
+        return t;
+    }
+
+    private void trim() {
+        var it = cache.entrySet().iterator();
+        while (cache.size() > cacheSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private Map<String, MessageTemplate> templatesFor(CommandSender sender) {
+        if (!perPlayer || !(sender instanceof Player p)) return current.templates();
+        return templatesFor(codeFor(p.locale()));
+    }
+
+    // Load a player's language ahead of their first message (locale change or join); any thread
+    public void prefetch(Locale locale) {
+        if (perPlayer && locale != null) templatesFor(codeFor(locale));
+    }
+
+    // Languages currently held besides the server language
+    public List<String> getCachedLanguages() {
+        synchronized (cache) {
+            return List.copyOf(cache.keySet());
+        }
+    }
+
+    // Bundled language: the precompiled form, or the YAML resource when the jar was built without it
+    private Map<String, String> loadBundled(String language, CompiledLanguage compiled) {
+        if (compiled != null) return compiled.strings();
+        YamlConfiguration yaml = loadFromResource("lang/" + language + ".yml");
+        return yaml != null ? CompiledLanguage.strings(yaml) : null;
+    }
+
+    private CompiledLanguage loadCompiled(String language) {
+        InputStream in = resources.apply("lang/" + language + ".bin");
+        if (in == null) return null;
+        try (InputStream bin = new BufferedInputStream(in)) {
+            return CompiledLanguage.read(bin);
+        } catch (IOException e) {
+            logger.warning("Failed to load compiled language " + language + ": " + e.getMessage());
+            return null;
         }
     }
 
     private YamlConfiguration loadFromResource(String path) {
-        InputStream in = plugin.getResource(path);
+        InputStream in = resources.apply(path);
         if (in == null) return null;
         try (InputStreamReader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
             return YamlConfiguration.loadConfiguration(reader);
         } catch (Exception e) {
-            plugin.getLogger().warning("Failed to load resource " + path + ": " + e.getMessage());
+            logger.warning("Failed to load resource " + path + ": " + e.getMessage());
             return null;
         }
     }
 
     public String get(String key) {
-        return messages.getString(key, key);
+        return raw(current.templates(), key);
     }
 
     public String get(String key, Map<String, String> placeholders) {
-        String base = get(key);
-        if (placeholders != null) {
-            for (Map.Entry<String, String> e : placeholders.entrySet()) {
-                base = base.replace("{" + e.getKey() + "}", e.getValue());
-            }
+        return render(current.templates(), key, placeholders);
+    }
+
+    // In the sender's client language when per-player messages are on (console: server language)
+    public String get(CommandSender sender, String key, Map<String, String> placeholders) {
+        return render(templatesFor(sender), key, placeholders);
+    }
+
+    // Cached Component for messages without placeholders
+    public Component component(String key, TextColor color) {
+        return component(current.templates(), key, color);
+    }
+
+    public Component component(String key, Map<String, String> placeholders, TextColor color) {
+        return component(current.templates(), key, placeholders, color);
+    }
+
+    public Component component(CommandSender sender, String key, TextColor color) {
+        return component(templatesFor(sender), key, color);
+    }
+
+    public Component component(CommandSender sender, String key, Map<String, String> placeholders, TextColor color) {
+        return component(templatesFor(sender), key, placeholders, color);
+    }
+
+    private static String raw(Map<String, MessageTemplate> templates, String key) {
+        MessageTemplate t = templates.get(key);
+        return t != null ? t.raw() : key;
+    }
+
+    private static String render(Map<String, MessageTemplate> templates, String key, Map<String, String> placeholders) {
+        MessageTemplate t = templates.get(key);
+        if (t == null) return key;
+        if (!t.hasPlaceholders()) return t.raw();
+        StringBuilder sb = builder();
+        t.render(placeholders, sb);
+        return sb.toString();
+    }
+
+    private static Component component(Map<String, MessageTemplate> templates, String key, TextColor color) {
+        MessageTemplate t = templates.get(key);
+        return t != null ? t.component(color) : Component.text(key, color);
+    }
+
+    private static Component component(Map<String, MessageTemplate> templates, String key, Map<String, String> placeholders,
+                                       TextColor color) {
+        MessageTemplate t = templates.get(key);
+        if (t == null || !t.hasPlaceholders()) return component(templates, key, color);
+        StringBuilder sb = builder();
+        t.render(placeholders, sb);
+        return Component.text(sb.toString(), color);
+    }
+
+    private static StringBuilder builder() {
+        StringBuilder sb = BUILDER.get();
+        if (sb.capacity() > 4096) {
+            sb = new StringBuilder(256);
+            BUILDER.set(sb);
         }
-        return base;
+        sb.setLength(0);
+        return sb;
     }
 
     public String getLanguage() {
-        return language;
+        return current.language();
     }
 
     public void reload(FileConfiguration config) {
-        String lang = config.getString("language", this.language != null ? this.language : "en_US");
-        setLanguage(lang);
+        setLanguage(config.getString("language", current.language()));
     }
 }
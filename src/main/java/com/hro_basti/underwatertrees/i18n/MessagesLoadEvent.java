@@ -0,0 +1,42 @@
+package com.hro_basti.underwatertrees.i18n;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR: one language bundle read and compiled, either as the server language (enable, reload) or
+// lazily for a player's client locale
+@Name("underwatertrees.MessagesLoad")
+@Label("Messages Load")
+@Category("UnderwaterTrees")
+@Description("Language file parsed and compiled into message templates")
+@StackTrace(false)
+final class MessagesLoadEvent extends Event {
+
+    @Label("Language")
+    String language;
+
+    @Label("Templates")
+    int templates;
+
+    @Label("Player Locale")
+    @Description("Loaded on demand for a player rather than as the server language")
+    boolean playerLocale;
+
+    static MessagesLoadEvent start(String language, boolean playerLocale) {
+        MessagesLoadEvent e = new MessagesLoadEvent();
+        e.begin();
+        e.language = language;
+        e.playerLocale = playerLocale;
+        return e;
+    }
+
+    void finish(int templates) {
+        if (!shouldCommit()) return;
+        this.templates = templates;
+        commit();
+    }
+}
@@ -0,0 +1,49 @@
+package com.hro_basti.underwatertrees.io;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// The file operations WriteBehind needs. The writer only talks to this, so it can run against a
+// slow or in-memory stand-in (see WriteBehindBenchmark) as well as the real disk.
+public interface Storage {
+
+    boolean exists(Path file) throws IOException;
+
+    void createDirectories(Path dir) throws IOException;
+
+    // Create or truncate
+    void write(Path file, byte[] content) throws IOException;
+
+    // Put source in place of target in one step where the file system allows it
+    void replace(Path source, Path target) throws IOException;
+
+    Storage DISK = new Storage() {
+        @Override
+        public boolean exists(Path file) {
+            return Files.exists(file);
+        }
+
+        @Override
+        public void createDirectories(Path dir) throws IOException {
+            Files.createDirectories(dir);
+        }
+
+        @Override
+        public void write(Path file, byte[] content) throws IOException {
+            Files.write(file, content);
+        }
+
+        @Override
+        public void replace(Path source, Path target) throws IOException {
+            try {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                // Some network file systems cannot rename atomically; still never truncates the target
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    };
+}
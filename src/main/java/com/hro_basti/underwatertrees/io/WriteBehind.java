@@ -0,0 +1,175 @@
+package com.hro_basti.underwatertrees.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+// Single writer for every file the plugin writes (config.yml, language files, update cache).
+// Callers hand over the finished bytes and return at once; the writer thread writes them to
+// <name>.tmp and renames that over the target, so neither a crash nor the config watcher ever sees
+// a half-written file. Writes to a path that is still queued coalesce: only the newest content is
+// written. close() drains the queue; anything written after that happens on the caller's thread.
+public class WriteBehind implements AutoCloseable {
+
+    private static final long CLOSE_TIMEOUT_MS = 10_000L;
+
+    private record Pending(byte[] content, boolean onlyIfAbsent) {
+    }
+
+    private final Storage store;
+    private final Executor executor;
+    // Shut down by close(); null when the executor belongs to the caller
+    private final ExecutorService owned;
+    private final Logger logger;
+    // Guarded by itself; one entry per path, in order of first request
+    private final Map<Path, Pending> pending = new LinkedHashMap<>();
+    // Guarded by pending: a drain is queued or running
+    private boolean draining;
+    private boolean closed;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public WriteBehind(Storage store, Executor executor, Logger logger) {
+        this(store, executor, null, logger);
+    }
+
+    private WriteBehind(Storage store, Executor executor, ExecutorService owned, Logger logger) {
+        this.store = store;
+        this.executor = executor;
+        this.owned = owned;
+        this.logger = logger;
+    }
+
+    // With its own daemon thread
+    public static WriteBehind start(Storage store, Logger logger) {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "UnderwaterTrees-Writer");
+            t.setDaemon(true);
+            return t;
+        });
+        return new WriteBehind(store, executor, executor, logger);
+    }
+
+    // Writes inline on the caller's thread (tools, benchmarks)
+    public static WriteBehind direct(Storage store, Logger logger) {
+        return new WriteBehind(store, Runnable::run, logger);
+    }
+
+    public void write(Path file, byte[] content) {
+        enqueue(file, new Pending(content, false));
+    }
+
+    // Bundled defaults: only written if the file still does not exist when the writer gets to it,
+    // checked on the writer thread; never replaces a queued write
+    public void writeIfAbsent(Path file, byte[] content) {
+        enqueue(file, new Pending(content, true));
+    }
+
+    private void enqueue(Path file, Pending p) {
+        boolean inline;
+        synchronized (pending) {
+            Pending prev = pending.get(file);
+            if (prev != null) {
+                if (p.onlyIfAbsent()) return;
+                coalesced.increment();
+            }
+            pending.put(file, p);
+            if (draining) return;
+            draining = true;
+            inline = closed;
+        }
+        if (inline) {
+            drain();
+        } else {
+            executor.execute(this::drain);
+        }
+    }
+
+    // One file at a time, so writes that arrive while a slow one is in progress still coalesce
+    private void drain() {
+        while (true) {
+            Map.Entry<Path, Pending> next;
+            synchronized (pending) {
+                Iterator<Map.Entry<Path, Pending>> it = pending.entrySet().iterator();
+                if (!it.hasNext()) {
+                    draining = false;
+                    pending.notifyAll();
+                    return;
+                }
+                next = it.next();
+                it.remove();
+            }
+            writeNow(next.getKey(), next.getValue());
+        }
+    }
+
+    private void writeNow(Path file, Pending p) {
+        try {
+            if (p.onlyIfAbsent() && store.exists(file)) return;
+            Path parent = file.getParent();
+            if (parent != null) store.createDirectories(parent);
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            store.write(tmp, p.content());
+            store.replace(tmp, file);
+            written.increment();
+        } catch (IOException | RuntimeException ex) {
+            failed.increment();
+            logger.warning("Failed to write " + file.getFileName() + ": " + ex.getMessage());
+        }
+    }
+
+    // Wait until everything queued so far is on disk; false on timeout
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (pending) {
+            while (draining) {
+                long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (left <= 0) return false;
+                pending.wait(left);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        synchronized (pending) {
+            closed = true;
+        }
+        try {
+            if (!flush(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                logger.warning("File writes still pending after " + CLOSE_TIMEOUT_MS + " ms: " + getPendingCount());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (owned != null) owned.shutdown();
+    }
+
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+}
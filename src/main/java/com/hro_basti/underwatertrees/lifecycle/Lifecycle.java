@@ -0,0 +1,130 @@
+package com.hro_basti.underwatertrees.lifecycle;
+
+import com.hro_basti.underwatertrees.scheduler.PluginScheduler;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+// Owns everything the plugin starts: event listeners, scheduled tasks and services with their own
+// threads or sockets, each under a fixed key. Installing under a key that is already held stops the
+// previous owner first, so init code can run again on every reload without stacking duplicates;
+// re-installing the same instance is a no-op. shutdown() stops everything in reverse install order.
+public class Lifecycle {
+
+    private record Entry(Object handle, Runnable stop) {
+    }
+
+    private final Plugin plugin;
+    // Insertion order = install order; replaced entries move to the end
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    public Lifecycle(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public synchronized <T extends Listener> T listener(String key, T listener) {
+        if (isHeld(key, listener)) return listener;
+        stop(key);
+        Bukkit.getPluginManager().registerEvents(listener, plugin);
+        entries.put(key, new Entry(listener, () -> HandlerList.unregisterAll(listener)));
+        return listener;
+    }
+
+    public synchronized ScheduledTask task(String key, ScheduledTask task) {
+        if (isHeld(key, task)) return task;
+        stop(key);
+        if (task != null) entries.put(key, new Entry(task, () -> PluginScheduler.cancel(task)));
+        return task;
+    }
+
+    public <T extends AutoCloseable> T service(String key, T service) {
+        return own(key, service, () -> {
+            try {
+                service.close();
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+    }
+
+    // Anything else with a stop action (executors, third-party handles)
+    public synchronized <T> T own(String key, T handle, Runnable stop) {
+        if (isHeld(key, handle)) return handle;
+        stop(key);
+        if (handle != null) entries.put(key, new Entry(handle, stop));
+        return handle;
+    }
+
+    private boolean isHeld(String key, Object handle) {
+        Entry e = entries.get(key);
+        return e != null && e.handle() == handle;
+    }
+
+    public synchronized boolean has(String key) {
+        return entries.containsKey(key);
+    }
+
+    public synchronized <T> T get(String key, Class<T> type) {
+        Entry e = entries.get(key);
+        return e != null && type.isInstance(e.handle()) ? type.cast(e.handle()) : null;
+    }
+
+    // Stop and forget one entry; false if nothing was held under the key
+    public synchronized boolean stop(String key) {
+        Entry e = entries.remove(key);
+        if (e == null) return false;
+        run(key, e);
+        return true;
+    }
+
+    public synchronized void shutdown() {
+        List<Map.Entry<String, Entry>> all = new ArrayList<>(entries.entrySet());
+        entries.clear();
+        for (int i = all.size() - 1; i >= 0; i--) {
+            run(all.get(i).getKey(), all.get(i).getValue());
+        }
+    }
+
+    // One failing stop must not leave the rest running
+    private void run(String key, Entry e) {
+        try {
+            e.stop().run();
+        } catch (RuntimeException ex) {
+            plugin.getLogger().log(Level.WARNING, "Failed to stop " + key, ex);
+        }
+    }
+
+    public synchronized List<String> keys() {
+        return List.copyOf(entries.keySet());
+    }
+
+    public synchronized int getListenerCount() {
+        return count(Listener.class);
+    }
+
+    public synchronized int getTaskCount() {
+        return count(ScheduledTask.class);
+    }
+
+    private int count(Class<?> type) {
+        int n = 0;
+        for (Entry e : entries.values()) {
+            if (type.isInstance(e.handle())) n++;
+        }
+        return n;
+    }
+
+    // Event handler methods the server actually has registered for this plugin; with no leaks this
+    // stays constant across reloads
+    public int getRegisteredHandlerCount() {
+        return HandlerList.getRegisteredListeners(plugin).size();
+    }
+}
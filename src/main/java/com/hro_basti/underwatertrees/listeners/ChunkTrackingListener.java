@@ -0,0 +1,48 @@
+package com.hro_basti.underwatertrees.listeners;
+
+import com.hro_basti.underwatertrees.scheduler.PluginScheduler;
+import com.hro_basti.underwatertrees.tracking.SaplingRegistry;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldSaveEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+// Keeps the in-memory sapling index in step with loaded chunks, and the chunk PDCs with the index
+public class ChunkTrackingListener implements Listener {
+
+    private final SaplingRegistry registry;
+    // Folia only: dirty chunks are written on their region thread
+    private final PluginScheduler regions;
+
+    public ChunkTrackingListener(SaplingRegistry registry, PluginScheduler scheduler) {
+        this.registry = registry;
+        this.regions = scheduler != null && PluginScheduler.isFolia() ? scheduler : null;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        // Freshly generated chunks cannot contain plugin-placed saplings
+        if (event.isNewChunk()) return;
+        registry.loadChunk(event.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        registry.unloadChunk(event.getChunk());
+    }
+
+    // Fired before the world's chunks are written
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldSave(WorldSaveEvent event) {
+        registry.save(event.getWorld(), regions);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        // Cancelled by another plugin: the world stays loaded, so must its index
+        registry.unloadWorld(event.getWorld());
+    }
+}
@@ -0,0 +1,27 @@
+package com.hro_basti.underwatertrees.listeners;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR: rules applied to the listener. Covers compiling too unless the rules were prepared
+// off-thread (config watcher), in which case only the publish is timed.
+@Name("underwatertrees.ConfigApply")
+@Label("Config Apply")
+@Category("UnderwaterTrees")
+@Description("Sapling rules compiled and published to the listener")
+@StackTrace(false)
+final class ConfigApplyEvent extends Event {
+
+    @Label("Precompiled")
+    boolean precompiled;
+
+    @Label("Saplings")
+    int saplings;
+
+    @Label("Soils")
+    int soils;
+}
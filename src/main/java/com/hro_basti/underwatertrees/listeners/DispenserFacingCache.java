@@ -0,0 +1,64 @@
+package com.hro_basti.underwatertrees.listeners;
+
+import org.bukkit.block.BlockFace;
+
+import java.util.UUID;
+
+// Facing of dispensers that recently fired a sapling, keyed by world UID and packed block position,
+// so onDispense does not clone the block data on every shot. Same open-addressing layout and
+// generation stamps as PhysicsDecisionCache; the listener bumps the shared epoch whenever a
+// dispenser may have been placed or moved, and once a second for changes made without an event.
+// One instance per thread (region threads on Folia).
+final class DispenserFacingCache {
+
+    private static final int CAPACITY = 1024; // power of two
+    private static final int MASK = CAPACITY - 1;
+    private static final int MAX_PROBE = 8;
+    private static final BlockFace[] FACES = BlockFace.values();
+
+    private final long[] keys = new long[CAPACITY];
+    private final UUID[] worlds = new UUID[CAPACITY];
+    private final int[] stamps = new int[CAPACITY];
+    private final byte[] faces = new byte[CAPACITY];
+    private int generation = 1;
+    private int epoch;
+
+    private static int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 40) & MASK;
+    }
+
+    void sync(int currentEpoch) {
+        if (epoch != currentEpoch) {
+            epoch = currentEpoch;
+            if (++generation == 0) {
+                java.util.Arrays.fill(stamps, 0);
+                java.util.Arrays.fill(worlds, null);
+                generation = 1;
+            }
+        }
+    }
+
+    // null on a miss
+    BlockFace get(UUID world, long key) {
+        int i = slot(key);
+        for (int n = 0; n < MAX_PROBE; n++, i = (i + 1) & MASK) {
+            if (stamps[i] != generation) return null;
+            if (keys[i] == key && world.equals(worlds[i])) return FACES[faces[i]];
+        }
+        return null;
+    }
+
+    void put(UUID world, long key, BlockFace face) {
+        int i = slot(key);
+        for (int n = 0; n < MAX_PROBE; n++, i = (i + 1) & MASK) {
+            if (stamps[i] != generation || (keys[i] == key && world.equals(worlds[i]))) {
+                keys[i] = key;
+                worlds[i] = world;
+                stamps[i] = generation;
+                faces[i] = (byte) face.ordinal();
+                return;
+            }
+        }
+    }
+}
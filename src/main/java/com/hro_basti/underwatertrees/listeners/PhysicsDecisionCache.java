@@ -0,0 +1,93 @@
+package com.hro_basti.underwatertrees.listeners;
+
+import java.util.UUID;
+
+// Tick-scoped memo of onPhysics decisions, keyed by world UID and packed block position.
+// Fixed-size open-addressing table; entries carry a generation stamp so clearing at a tick
+// boundary is a single increment instead of wiping the arrays. When the probe window is full
+// the decision simply is not cached.
+// One instance per thread (region threads on Folia); the shared tick epoch is compared on use.
+final class PhysicsDecisionCache {
+
+    private static final int CAPACITY = 4096; // power of two
+    private static final int MASK = CAPACITY - 1;
+    private static final int MAX_PROBE = 8;
+
+    static final byte MISS = 0;
+    static final byte CANCEL = 1;
+    static final byte ALLOW = 2;
+
+    private final long[] keys = new long[CAPACITY];
+    // UIDs rather than World references: a stale entry must not keep an unloaded world reachable
+    private final UUID[] worlds = new UUID[CAPACITY];
+    private final int[] stamps = new int[CAPACITY];
+    private final byte[] decisions = new byte[CAPACITY];
+    private int generation = 1;
+    private int epoch;
+
+    // Written by the owning thread only; read racily (plain fields, no fence on the hot path) for stats
+    private long hits;
+    private long lookups;
+
+    // Same layout as Paper's Block#getBlockKey
+    static long blockKey(int x, int y, int z) {
+        return ((long) x & 0x7FFFFFF) | (((long) z & 0x7FFFFFF) << 27) | ((long) y << 54);
+    }
+
+    private static int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 40) & MASK;
+    }
+
+    // Catch up with the shared tick/rule epoch; stale entries are dropped in O(1)
+    void sync(int currentEpoch) {
+        if (epoch != currentEpoch) {
+            epoch = currentEpoch;
+            invalidate();
+        }
+    }
+
+    byte get(UUID world, long key) {
+        lookups++;
+        int i = slot(key);
+        for (int n = 0; n < MAX_PROBE; n++, i = (i + 1) & MASK) {
+            if (stamps[i] != generation) return MISS;
+            if (keys[i] == key && world.equals(worlds[i])) {
+                hits++;
+                return decisions[i];
+            }
+        }
+        return MISS;
+    }
+
+    void put(UUID world, long key, byte decision) {
+        int i = slot(key);
+        for (int n = 0; n < MAX_PROBE; n++, i = (i + 1) & MASK) {
+            if (stamps[i] != generation || (keys[i] == key && world.equals(worlds[i]))) {
+                keys[i] = key;
+                worlds[i] = world;
+                stamps[i] = generation;
+                decisions[i] = decision;
+                return;
+            }
+        }
+    }
+
+    // Every entry becomes stale at once
+    private void invalidate() {
+        if (++generation == 0) {
+            // Stamp wrapped around: wipe so ancient entries cannot match again
+            java.util.Arrays.fill(stamps, 0);
+            java.util.Arrays.fill(worlds, null);
+            generation = 1;
+        }
+    }
+
+    long getHits() {
+        return hits;
+    }
+
+    long getLookups() {
+        return lookups;
+    }
+}
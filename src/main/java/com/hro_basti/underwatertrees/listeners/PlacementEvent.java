@@ -0,0 +1,61 @@
+package com.hro_basti.underwatertrees.listeners;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+
+// JFR: one underwater placement attempt (player or dispenser) and its outcome. Like all plugin
+// events it can be toggled per recording (underwatertrees.Placement#enabled); when off, begin()
+// and shouldCommit() are the only cost.
+@Name("underwatertrees.Placement")
+@Label("Underwater Placement")
+@Category("UnderwaterTrees")
+@Description("Sapling placement handled by UnderwaterTrees")
+@StackTrace(false)
+final class PlacementEvent extends Event {
+
+    @Label("Source")
+    String source;
+
+    @Label("Outcome")
+    @Description("PLACED or the rejection reason")
+    String outcome;
+
+    @Label("Sapling")
+    String sapling;
+
+    @Label("World")
+    String world;
+
+    @Label("X")
+    int x;
+
+    @Label("Y")
+    int y;
+
+    @Label("Z")
+    int z;
+
+    static PlacementEvent start(String source) {
+        PlacementEvent e = new PlacementEvent();
+        e.begin();
+        e.source = source;
+        return e;
+    }
+
+    void finish(String outcome, Material sapling, Block target) {
+        if (!shouldCommit()) return;
+        this.outcome = outcome;
+        this.sapling = sapling.name();
+        this.world = target.getWorld().getName();
+        this.x = target.getX();
+        this.y = target.getY();
+        this.z = target.getZ();
+        commit();
+    }
+}
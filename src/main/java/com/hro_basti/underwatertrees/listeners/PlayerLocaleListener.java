@@ -0,0 +1,37 @@
+package com.hro_basti.underwatertrees.listeners;
+
+import com.hro_basti.underwatertrees.i18n.Messages;
+import com.hro_basti.underwatertrees.scheduler.PluginScheduler;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLocaleChangeEvent;
+
+import java.util.Locale;
+
+// Loads a player's message language off-thread before the first message needs it
+public class PlayerLocaleListener implements Listener {
+
+    private final Messages messages;
+    private final PluginScheduler scheduler;
+
+    public PlayerLocaleListener(Messages messages, PluginScheduler scheduler) {
+        this.messages = messages;
+        this.scheduler = scheduler;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        prefetch(event.getPlayer().locale());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLocaleChange(PlayerLocaleChangeEvent event) {
+        prefetch(event.locale());
+    }
+
+    private void prefetch(Locale locale) {
+        scheduler.runAsync(() -> messages.prefetch(locale));
+    }
+}
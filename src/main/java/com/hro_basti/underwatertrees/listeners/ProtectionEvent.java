@@ -0,0 +1,36 @@
+package com.hro_basti.underwatertrees.listeners;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// JFR: physics and fluid events on tracked saplings, aggregated per server tick (one event per tick
+// with any activity) instead of one per event, so recordings stay small on busy servers
+@Name("underwatertrees.Protection")
+@Label("Sapling Protection")
+@Category("UnderwaterTrees")
+@Description("Physics and fluid events on tracked saplings during one tick")
+@StackTrace(false)
+final class ProtectionEvent extends Event {
+
+    @Label("Physics Inspected")
+    long physicsInspected;
+
+    @Label("Physics Cancelled")
+    long physicsCancelled;
+
+    @Label("Fluid Inspected")
+    long fluidInspected;
+
+    @Label("Fluid Cancelled")
+    long fluidCancelled;
+
+    @Label("Handler Time")
+    @Description("Time spent deciding physics and fluid events")
+    @Timespan(Timespan.NANOSECONDS)
+    long handlerTime;
+}
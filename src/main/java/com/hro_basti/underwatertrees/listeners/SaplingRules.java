@@ -0,0 +1,255 @@
+package com.hro_basti.underwatertrees.listeners;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.Sapling;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.logging.Logger;
+
+// Immutable, compiled view of the placement/protection config.
+// Material sets are ordinal-indexed bitmaps so hot-path checks are a shift and a mask.
+// Built aside on reload and published through a single volatile reference.
+public final class SaplingRules {
+
+    private static final Material[] MATERIALS = Material.values();
+
+    public static final SaplingRules EMPTY = new SaplingRules(new long[words()], new long[words()], new BlockData[MATERIALS.length], false, false, 0, 0);
+
+    private final long[] saplingBits;
+    private final long[] soilBits;
+    // Stage-0 block data per sapling material, built once per compile and shared read-only by all placements
+    private final BlockData[] placementData;
+    private final boolean requireWaterAbove;
+    private final boolean protectSaplings;
+    // Placement caps for tracked saplings; 0 = unlimited
+    private final int maxPerChunk;
+    private final int maxPerRegion;
+    private final int saplingCount;
+    private final int soilCount;
+
+    private SaplingRules(long[] saplingBits, long[] soilBits, BlockData[] placementData, boolean requireWaterAbove, boolean protectSaplings,
+                         int maxPerChunk, int maxPerRegion) {
+        this.saplingBits = saplingBits;
+        this.soilBits = soilBits;
+        this.placementData = placementData;
+        this.requireWaterAbove = requireWaterAbove;
+        this.protectSaplings = protectSaplings;
+        this.maxPerChunk = maxPerChunk;
+        this.maxPerRegion = maxPerRegion;
+        this.saplingCount = bitCount(saplingBits);
+        this.soilCount = bitCount(soilBits);
+    }
+
+    private static int words() {
+        return (MATERIALS.length + 63) >>> 6;
+    }
+
+    private static boolean test(long[] bits, Material m) {
+        int o = m.ordinal();
+        return (bits[o >>> 6] & (1L << o)) != 0;
+    }
+
+    private static void set(long[] bits, Material m) {
+        int o = m.ordinal();
+        bits[o >>> 6] |= 1L << o;
+    }
+
+    private static int bitCount(long[] bits) {
+        int n = 0;
+        for (long l : bits) n += Long.bitCount(l);
+        return n;
+    }
+
+    public boolean isSapling(Material m) {
+        return test(saplingBits, m);
+    }
+
+    public boolean isSoil(Material m) {
+        return test(soilBits, m);
+    }
+
+    // Null when the material has no block form (or no server to build it); callers fall back to setType
+    public BlockData placementData(Material m) {
+        return placementData[m.ordinal()];
+    }
+
+    public boolean requireWaterAbove() {
+        return requireWaterAbove;
+    }
+
+    public boolean protectSaplings() {
+        return protectSaplings;
+    }
+
+    public int maxPerChunk() {
+        return maxPerChunk;
+    }
+
+    public int maxPerRegion() {
+        return maxPerRegion;
+    }
+
+    public int getSaplingCount() {
+        return saplingCount;
+    }
+
+    public int getSoilCount() {
+        return soilCount;
+    }
+
+    public Set<Material> getSaplings() {
+        return toSet(saplingBits);
+    }
+
+    public Set<Material> getSoils() {
+        return toSet(soilBits);
+    }
+
+    private static Set<Material> toSet(long[] bits) {
+        EnumSet<Material> out = EnumSet.noneOf(Material.class);
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                out.add(MATERIALS[(w << 6) | Long.numberOfTrailingZeros(word)]);
+                word &= word - 1;
+            }
+        }
+        return Collections.unmodifiableSet(out);
+    }
+
+    private static BlockData buildPlacementData(Material m) {
+        if (!m.isBlock()) return null;
+        try {
+            BlockData data = Bukkit.createBlockData(m);
+            if (data instanceof Sapling s) s.setStage(0);
+            return data;
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    // Compile config into a new snapshot; warnings and stats go to the given logger
+    public static SaplingRules compile(ConfigurationSection cfg, Logger logger) {
+        long[] saplings = new long[words()];
+        long[] soils = new long[words()];
+
+        boolean requireWaterAbove = cfg.getBoolean("require-water-above", false);
+        boolean protectSaplings = cfg.getBoolean("protect-underwater-saplings", true);
+        int maxPerChunk = Math.max(0, cfg.getInt("limits.max-per-chunk", 0));
+        int maxPerRegion = Math.max(0, cfg.getInt("limits.max-per-region", 0));
+        boolean logStats = cfg.getBoolean("log-stats", true);
+        boolean logDetail = cfg.getBoolean("log-detail", false);
+
+        // New format: section with key: boolean entries
+        var saplingSection = cfg.getConfigurationSection("saplings");
+        if (saplingSection != null) {
+            for (String key : saplingSection.getKeys(false)) {
+                boolean enabled = saplingSection.getBoolean(key, false);
+                if (!enabled) continue;
+                try {
+                    Material m = Material.matchMaterial(key.toUpperCase());
+                    if (m == null) {
+                        logger.warning("Unknown sapling/material key in config: " + key);
+                        continue;
+                    }
+                    // Any enabled material is accepted (custom saplings, future extensions)
+                    set(saplings, m);
+                } catch (IllegalArgumentException ex) {
+                    logger.warning("Unknown sapling/material key in config: " + key);
+                }
+            }
+        } else {
+            logger.warning("Config section 'saplings' missing; no saplings will be allowed.");
+        }
+
+        var soilSection = cfg.getConfigurationSection("soils");
+        if (soilSection != null) {
+            for (String key : soilSection.getKeys(false)) {
+                boolean enabled = soilSection.getBoolean(key, false);
+                if (!enabled) continue;
+                try {
+                    Material m = Material.matchMaterial(key.toUpperCase());
+                    if (m == null) {
+                        logger.warning("Unknown soil material key in config: " + key);
+                        continue;
+                    }
+                    set(soils, m);
+                } catch (IllegalArgumentException ex) {
+                    logger.warning("Unknown soil material key in config: " + key);
+                }
+            }
+        } else {
+            logger.warning("Config section 'soils' missing; no soils will be valid.");
+        }
+
+        // Fallback: if both sets empty, populate with default vanilla lists
+        if (bitCount(saplings) == 0 && bitCount(soils) == 0) {
+            logger.warning("No saplings and soils loaded; applying fallback defaults.");
+            // Default soils (resolved by name to avoid hard references)
+            String[] defaultSoils = new String[]{
+                "DIRT",
+                "GRASS_BLOCK",
+                "PODZOL",
+                "COARSE_DIRT",
+                "ROOTED_DIRT",
+                "MOSS_BLOCK",
+                "MUD"
+            };
+            for (String n : defaultSoils) {
+                Material m = Material.matchMaterial(n);
+                if (m != null) set(soils, m);
+            }
+            // Default saplings (resolved by name to avoid hard references)
+            String[] defaultSaplings = new String[]{
+                "OAK_SAPLING",
+                "SPRUCE_SAPLING",
+                "BIRCH_SAPLING",
+                "JUNGLE_SAPLING",
+                "ACACIA_SAPLING",
+                "DARK_OAK_SAPLING",
+                "CHERRY_SAPLING",
+                "MANGROVE_PROPAGULE"
+            };
+            for (String n : defaultSaplings) {
+                Material m = Material.matchMaterial(n);
+                if (m != null) set(saplings, m);
+            }
+        }
+
+        BlockData[] placement = new BlockData[MATERIALS.length];
+        for (Material m : toSet(saplings)) {
+            placement[m.ordinal()] = buildPlacementData(m);
+        }
+
+        SaplingRules rules = new SaplingRules(saplings, soils, placement, requireWaterAbove, protectSaplings,
+                maxPerChunk, maxPerRegion);
+
+        if (logStats) {
+            logger.info("Loaded soils: " + rules.soilCount + ", saplings: " + rules.saplingCount + ", require-water-above=" + requireWaterAbove + ", protect-underwater-saplings=" + protectSaplings + ", log-detail=" + logDetail);
+        }
+        if (logStats && (maxPerChunk > 0 || maxPerRegion > 0)) {
+            logger.info("Placement caps: " + (maxPerChunk > 0 ? maxPerChunk : "unlimited") + " per chunk, "
+                    + (maxPerRegion > 0 ? maxPerRegion : "unlimited") + " per region.");
+        }
+        if (logDetail) {
+            if (rules.soilCount > 0) {
+                logger.info("Soils:");
+                for (Material m : rules.getSoils()) {
+                    logger.info(" - " + m.name());
+                }
+            }
+            if (rules.saplingCount > 0) {
+                logger.info("Saplings:");
+                for (Material m : rules.getSaplings()) {
+                    logger.info(" - " + m.name());
+                }
+            }
+        }
+        return rules;
+    }
+}
@@ -1,174 +1,253 @@
 package com.hro_basti.underwatertrees.listeners;
 
 import com.hro_basti.underwatertrees.Plugin;
+import com.hro_basti.underwatertrees.stats.HandlerStats;
+import com.hro_basti.underwatertrees.tracking.SaplingIndex;
+import com.hro_basti.underwatertrees.tracking.SaplingRegistry;
+import io.papermc.paper.event.block.BlockPreDispenseEvent;
 import org.bukkit.GameMode;
 import org.bukkit.Material;
-import org.bukkit.Sound;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.data.BlockData;
-import org.bukkit.block.data.type.Sapling;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.EnumSet;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
 
 public class UnderwaterSaplingsListener implements Listener {
 
-    private final Plugin plugin;
-    private final Set<Material> saplings = EnumSet.noneOf(Material.class);
-    private final Set<Material> validSoils = new HashSet<>();
-    private boolean requireWaterAbove = true;
-    private boolean protectSaplings = true;
+    // Played by key: keeps the handler off the Sound registry (same sound as Sound.BLOCK_GRASS_PLACE)
+    private static final String PLACE_SOUND = "minecraft:block.grass.place";
+    private static final String PLACED = "PLACED";
+    // Degraded mode: physics decisions are re-validated once a second instead of every tick
+    private static final int DEGRADED_REVALIDATE_TICKS = 20;
+    // Cached dispenser facings are dropped at least this often, for blocks changed without an event
+    private static final int FACING_REVALIDATE_TICKS = 20;
 
-    public UnderwaterSaplingsListener(Plugin plugin) {
-        this.plugin = plugin;
+    private final Logger logger;
+    private volatile SaplingRules rules = SaplingRules.EMPTY;
+    // Saplings placed underwater by this plugin; hot paths bail out on an index miss
+    private final SaplingRegistry registry;
+    private final SaplingIndex index;
+    // Per-thread physics memo; tickEpoch is bumped once per tick and on every rule reload
+    private final AtomicInteger tickEpoch = new AtomicInteger();
+    private final Queue<PhysicsDecisionCache> decisionCaches = new ConcurrentLinkedQueue<>();
+    // Lock-free counters and latency histograms for /underwatertrees stats
+    private final HandlerStats stats = new HandlerStats();
+    private final ThreadLocal<PhysicsDecisionCache> decisionCache = ThreadLocal.withInitial(() -> {
+        PhysicsDecisionCache cache = new PhysicsDecisionCache();
+        decisionCaches.add(cache);
+        return cache;
+    });
+    // Per-thread dispenser facings; facingEpoch is bumped when a dispenser is placed or pushed
+    private final AtomicInteger facingEpoch = new AtomicInteger();
+    private final ThreadLocal<DispenserFacingCache> facingCache = ThreadLocal.withInitial(DispenserFacingCache::new);
+    private int ticksSinceFacingEpoch;
+    // Set by the load controller while the server is behind; see setDegraded
+    private volatile boolean degraded;
+    private int ticksSinceEpoch;
+    // Protection counters at the previous tick, for the per-tick JFR event; null while it is off
+    private long[] protectionTotals;
+
+    public UnderwaterSaplingsListener(Plugin plugin, SaplingRegistry registry) {
+        this(plugin.getLogger(), registry);
         applyConfig(plugin.getConfig());
     }
 
+    // Starts with empty rules; callers publish them via applyConfig/applyRules
+    public UnderwaterSaplingsListener(Logger logger, SaplingRegistry registry) {
+        this.logger = logger;
+        this.registry = registry;
+        this.index = registry.getIndex();
+    }
+
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onFluidFlow(org.bukkit.event.block.BlockFromToEvent event) {
-        if (!protectSaplings) return;
+        SaplingRules r = rules;
+        if (!r.protectSaplings()) return;
         Block to = event.getToBlock();
-        if (saplings.contains(to.getType())) {
+        // Untracked chunk/section: decide without loading the block type
+        if (!index.contains(to)) return;
+        long start = System.nanoTime();
+        // Degraded: trust the index; a stale entry is dropped by the next physics re-validation
+        boolean cancel = degraded || r.isSapling(to.getType());
+        if (cancel) {
             // Prevent fluids from flowing into the sapling block to avoid breaking/updates
             event.setCancelled(true);
+        } else {
+            registry.untrack(to);
         }
+        stats.recordFluid(cancel, System.nanoTime() - start);
     }
 
     public void applyConfig(FileConfiguration cfg) {
-        saplings.clear();
-        validSoils.clear();
-
-        requireWaterAbove = cfg.getBoolean("require-water-above", false);
-        protectSaplings = cfg.getBoolean("protect-underwater-saplings", true);
-        boolean logStats = cfg.getBoolean("log-stats", true);
-        boolean logDetail = cfg.getBoolean("log-detail", false);
-
-        // New format: section with key: boolean entries
-        var saplingSection = cfg.getConfigurationSection("saplings");
-        if (saplingSection != null) {
-            for (String key : saplingSection.getKeys(false)) {
-                boolean enabled = saplingSection.getBoolean(key, false);
-                if (!enabled) continue;
-                try {
-                    Material m = Material.matchMaterial(key.toUpperCase());
-                    if (m == null) {
-                        plugin.getLogger().warning("Unknown sapling/material key in config: " + key);
-                        continue;
-                    }
-                    String name = m.name();
-                    // Allow any material ending with _SAPLING or the named propagule (no direct enum reference)
-                    if (name.endsWith("_SAPLING") || name.equals("MANGROVE_PROPAGULE")) {
-                        saplings.add(m);
-                    } else {
-                        // Accept other materials for future extensions; still add if enabled
-                        saplings.add(m);
-                    }
-                } catch (IllegalArgumentException ex) {
-                    plugin.getLogger().warning("Unknown sapling/material key in config: " + key);
-                }
-            }
-        } else {
-            plugin.getLogger().warning("Config section 'saplings' missing; no saplings will be allowed.");
-        }
-
-        var soilSection = cfg.getConfigurationSection("soils");
-        if (soilSection != null) {
-            for (String key : soilSection.getKeys(false)) {
-                boolean enabled = soilSection.getBoolean(key, false);
-                if (!enabled) continue;
-                try {
-                    Material m = Material.matchMaterial(key.toUpperCase());
-                    if (m == null) {
-                        plugin.getLogger().warning("Unknown soil material key in config: " + key);
-                        continue;
-                    }
-                    validSoils.add(m);
-                } catch (IllegalArgumentException ex) {
-                    plugin.getLogger().warning("Unknown soil material key in config: " + key);
-                }
-            }
-        } else {
-            plugin.getLogger().warning("Config section 'soils' missing; no soils will be valid.");
-        }
-
-        // Fallback: if both sets empty, populate with default vanilla lists
-        if (saplings.isEmpty() && validSoils.isEmpty()) {
-            plugin.getLogger().warning("No saplings and soils loaded; applying fallback defaults.");
-            // Default soils (resolved by name to avoid hard references)
-            String[] defaultSoils = new String[]{
-                "DIRT",
-                "GRASS_BLOCK",
-                "PODZOL",
-                "COARSE_DIRT",
-                "ROOTED_DIRT",
-                "MOSS_BLOCK",
-                "MUD"
-            };
-            for (String n : defaultSoils) {
-            Material m = Material.matchMaterial(n);
-            if (m != null) validSoils.add(m);
-            }
-            // Default saplings (resolved by name to avoid hard references)
-            String[] defaultSaplings = new String[]{
-                "OAK_SAPLING",
-                "SPRUCE_SAPLING",
-                "BIRCH_SAPLING",
-                "JUNGLE_SAPLING",
-                "ACACIA_SAPLING",
-                "DARK_OAK_SAPLING",
-                "CHERRY_SAPLING",
-                "MANGROVE_PROPAGULE"
-            };
-            for (String n : defaultSaplings) {
-            Material m = Material.matchMaterial(n);
-            if (m != null) saplings.add(m);
-            }
-        }
+        ConfigApplyEvent jfr = new ConfigApplyEvent();
+        jfr.begin();
+        // Compile aside, then publish in one write; handlers never see a half-filled rule set
+        publish(SaplingRules.compile(cfg, logger), cfg.getBoolean("log-stats", true), jfr);
+    }
+
+    // Publish rules compiled elsewhere (e.g. by the config watcher thread)
+    public void applyRules(SaplingRules compiled, boolean logStats) {
+        ConfigApplyEvent jfr = new ConfigApplyEvent();
+        jfr.begin();
+        jfr.precompiled = true;
+        publish(compiled, logStats, jfr);
+    }
 
-        if (logStats) {
-            plugin.getLogger().info("Loaded soils: " + validSoils.size() + ", saplings: " + saplings.size() + ", require-water-above=" + requireWaterAbove + ", protect-underwater-saplings=" + protectSaplings + ", log-detail=" + logDetail);
+    private void publish(SaplingRules compiled, boolean logStats, ConfigApplyEvent jfr) {
+        rules = compiled;
+        tickEpoch.incrementAndGet();
+        if (jfr.shouldCommit()) {
+            jfr.saplings = compiled.getSaplingCount();
+            jfr.soils = compiled.getSoilCount();
+            jfr.commit();
         }
-        if (logDetail) {
-            if (!validSoils.isEmpty()) {
-                plugin.getLogger().info("Soils:");
-                for (Material m : validSoils) {
-                    plugin.getLogger().info(" - " + m.name());
-                }
-            }
-            if (!saplings.isEmpty()) {
-                plugin.getLogger().info("Saplings:");
-                for (Material m : saplings) {
-                    plugin.getLogger().info(" - " + m.name());
-                }
-            }
+        long lookups = getPhysicsCacheLookups();
+        if (logStats && lookups > 0) {
+            logger.info(String.format(java.util.Locale.ROOT, "Physics decision cache: %.1f%% hit ratio (%d/%d lookups)",
+                    getPhysicsCacheHitRatio() * 100.0, getPhysicsCacheHits(), lookups));
         }
     }
 
+    public SaplingRules getRules() {
+        return rules;
+    }
+
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onPhysics(org.bukkit.event.block.BlockPhysicsEvent event) {
-        if (!protectSaplings) return;
+        SaplingRules r = rules;
+        if (!r.protectSaplings()) return;
         Block b = event.getBlock();
-        if (!saplings.contains(b.getType())) return;
+        if (!index.contains(b)) return;
+
+        long start = System.nanoTime();
+        boolean cancel = physicsDecision(r, b, event.getSourceBlock());
+        // Survival conditions still valid -> cancel any physics that would otherwise break the sapling
+        if (cancel) event.setCancelled(true);
+        stats.recordPhysics(cancel, System.nanoTime() - start);
+    }
+
+    private boolean physicsDecision(SaplingRules r, Block b, Block source) {
+        UUID world = b.getWorld().getUID();
+        int x = b.getX(), y = b.getY(), z = b.getZ();
+        long key = PhysicsDecisionCache.blockKey(x, y, z);
+        // Changes to the sapling itself, its soil or the block above invalidate the memo, degraded or not
+        boolean dependencyChanged = source.getX() == x && source.getZ() == z && Math.abs(source.getY() - y) <= 1;
+        PhysicsDecisionCache cache = decisionCache.get();
+        cache.sync(tickEpoch.get());
+        if (!dependencyChanged) {
+            byte cached = cache.get(world, key);
+            if (cached != PhysicsDecisionCache.MISS) return cached == PhysicsDecisionCache.CANCEL;
+        }
+
+        boolean cancel = shouldProtect(r, b);
+        cache.put(world, key, cancel ? PhysicsDecisionCache.CANCEL : PhysicsDecisionCache.ALLOW);
+        return cancel;
+    }
+
+    private boolean shouldProtect(SaplingRules r, Block b) {
+        if (!r.isSapling(b.getType())) {
+            // Sapling was replaced by other means (piston, explosion, growth): forget it
+            registry.untrack(b);
+            return false;
+        }
 
         // Allow natural break if survival conditions are no longer met
         Block soil = b.getRelative(BlockFace.DOWN);
-        if (!validSoils.contains(soil.getType())) return;
+        if (!r.isSoil(soil.getType())) return false;
         Block above = b.getRelative(BlockFace.UP);
-        if (requireWaterAbove && above.getType() != Material.WATER) return;
+        if (r.requireWaterAbove() && above.getType() != Material.WATER) return false;
+        return true;
+    }
 
-        // Survival conditions still valid -> cancel any physics that would otherwise break the sapling
-        event.setCancelled(true);
+    // Tick boundary, driven by a global-region timer (fires once per tick on Paper and Folia)
+    public void nextTick() {
+        if (!degraded || ++ticksSinceEpoch >= DEGRADED_REVALIDATE_TICKS) {
+            ticksSinceEpoch = 0;
+            tickEpoch.incrementAndGet();
+        }
+        if (++ticksSinceFacingEpoch >= FACING_REVALIDATE_TICKS) {
+            ticksSinceFacingEpoch = 0;
+            facingEpoch.incrementAndGet();
+        }
+        stats.tick();
+        ProtectionEvent jfr = new ProtectionEvent();
+        if (jfr.isEnabled()) {
+            emitProtection(jfr);
+        } else {
+            protectionTotals = null;
+        }
+    }
+
+    // Deltas of the shared counters since the previous tick; only the tick timer thread gets here
+    private void emitProtection(ProtectionEvent jfr) {
+        long[] now = {stats.getPhysicsInspected(), stats.getPhysicsCancelled(), stats.getFluidInspected(),
+                stats.getFluidCancelled(), stats.getPhysicsLatency().totalNanos() + stats.getFluidLatency().totalNanos()};
+        long[] last = protectionTotals;
+        protectionTotals = now;
+        // First tick after enabling, or the stats were reset
+        if (last == null || now[0] < last[0] || now[2] < last[2]) return;
+        if (now[0] == last[0] && now[2] == last[2]) return;
+        jfr.physicsInspected = now[0] - last[0];
+        jfr.physicsCancelled = now[1] - last[1];
+        jfr.fluidInspected = now[2] - last[2];
+        jfr.fluidCancelled = now[3] - last[3];
+        jfr.handlerTime = now[4] - last[4];
+        jfr.commit();
+    }
+
+    public HandlerStats getStats() {
+        return stats;
+    }
+
+    // Cheap protection while the server is behind: memoised physics decisions live for a second
+    // (updates from the soil or the block above still re-check at once), and fluid checks skip the
+    // block read.
+    // Leaving the mode invalidates the memo so every sapling is re-checked on its next update.
+    public void setDegraded(boolean degraded) {
+        this.degraded = degraded;
+        if (!degraded) tickEpoch.incrementAndGet();
+    }
+
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    // Share of physics decisions answered from the per-tick memo since enable
+    public double getPhysicsCacheHitRatio() {
+        long lookups = getPhysicsCacheLookups();
+        return lookups == 0 ? 0.0 : (double) getPhysicsCacheHits() / lookups;
+    }
+
+    public long getPhysicsCacheHits() {
+        long n = 0;
+        for (PhysicsDecisionCache c : decisionCaches) n += c.getHits();
+        return n;
+    }
+
+    public long getPhysicsCacheLookups() {
+        long n = 0;
+        for (PhysicsDecisionCache c : decisionCaches) n += c.getLookups();
+        return n;
     }
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
@@ -179,29 +258,35 @@ public class UnderwaterSaplingsListener implements Listener {
         ItemStack item = event.getItem();
         if (item == null) return;
 
+        SaplingRules r = rules;
         Material type = item.getType();
-        if (!saplings.contains(type)) return;
+        if (!r.isSapling(type)) return;
 
         Block clicked = event.getClickedBlock();
         if (clicked == null) return;
-
         if (event.getBlockFace() != BlockFace.UP) return;
 
+        // Ordinary side clicks and dry-land planting are not underwater attempts and stay out of
+        // the stats and JFR, same as in the dispenser handler
         Block placeBlock = clicked.getRelative(BlockFace.UP);
-        if (requireWaterAbove && placeBlock.getType() != Material.WATER) return;
-
-        if (!validSoils.contains(clicked.getType())) return;
+        if (r.requireWaterAbove() && placeBlock.getType() != Material.WATER) return;
 
-        event.setCancelled(true);
+        long start = System.nanoTime();
+        PlacementEvent jfr = PlacementEvent.start("player");
+        if (!r.isSoil(clicked.getType())) {
+            reject(HandlerStats.Rejection.INVALID_SOIL, start, jfr, type, placeBlock);
+            return;
+        }
 
-        BlockData data = org.bukkit.Bukkit.createBlockData(type);
-        if (data instanceof Sapling s) {
-            s.setStage(0);
-            placeBlock.setBlockData(s, false);
-        } else {
-            placeBlock.setType(type, false);
+        HandlerStats.Rejection limit = checkLimits(r, placeBlock);
+        if (limit != null) {
+            reject(limit, start, jfr, type, placeBlock);
+            return;
         }
 
+        event.setCancelled(true);
+        place(r, type, placeBlock);
+
         Player player = event.getPlayer();
         if (player.getGameMode() != GameMode.CREATIVE) {
             int amount = item.getAmount();
@@ -212,23 +297,156 @@ public class UnderwaterSaplingsListener implements Listener {
             }
         }
 
-        placeBlock.getWorld().playSound(placeBlock.getLocation(), Sound.BLOCK_GRASS_PLACE, 1.0f, 1.0f);
+        stats.recordPlaced(System.nanoTime() - start);
+        jfr.finish(PLACED, type, placeBlock);
+    }
+
+    // Dispensers plant saplings into the water block they face, on valid soil. Paper's pre-dispense
+    // event carries the slot, so one item is taken from it directly instead of vanilla splitting the
+    // stack and restoring it after a cancelled BlockDispenseEvent.
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onDispense(BlockPreDispenseEvent event) {
+        SaplingRules r = rules;
+        Material type = event.getItemStack().getType();
+        if (!r.isSapling(type)) return;
+        Block dispenser = event.getBlock();
+        // Droppers share the block data type but only ever drop
+        if (dispenser.getType() != Material.DISPENSER) return;
+        BlockFace facing = facing(dispenser);
+        if (facing == null) return;
+
+        // Only underwater planting is handled here; anything else dispenses the vanilla way and is
+        // none of our business, so it stays out of the stats and JFR
+        Block target = dispenser.getRelative(facing);
+        if (target.getType() != Material.WATER) return;
+        long start = System.nanoTime();
+        PlacementEvent jfr = PlacementEvent.start("dispenser");
+        if (!r.isSoil(target.getRelative(BlockFace.DOWN).getType())) {
+            reject(HandlerStats.Rejection.INVALID_SOIL, start, jfr, type, target);
+            return;
+        }
+        HandlerStats.Rejection limit = checkLimits(r, target);
+        if (limit != null) {
+            reject(limit, start, jfr, type, target);
+            return;
+        }
+
+        event.setCancelled(true);
+        place(r, type, target);
+
+        // Non-snapshot state: the inventory view and the slot item write through to the dispenser.
+        // Only reached on a successful plant; the event's item mirror would skip marking the block
+        // entity changed, so the taken sapling could come back after a restart.
+        if (dispenser.getState(false) instanceof org.bukkit.block.Dispenser state) {
+            Inventory inv = state.getInventory();
+            ItemStack slot = inv.getItem(event.getSlot());
+            if (slot != null) {
+                int amount = slot.getAmount();
+                if (amount > 1) {
+                    slot.setAmount(amount - 1);
+                } else {
+                    inv.setItem(event.getSlot(), null);
+                }
+            }
+        }
+        stats.recordPlaced(System.nanoTime() - start);
+        jfr.finish(PLACED, type, target);
+    }
+
+    // Block data is only cloned on a cache miss: once per dispenser and facing epoch
+    private BlockFace facing(Block dispenser) {
+        DispenserFacingCache cache = facingCache.get();
+        cache.sync(facingEpoch.get());
+        UUID world = dispenser.getWorld().getUID();
+        long key = PhysicsDecisionCache.blockKey(dispenser.getX(), dispenser.getY(), dispenser.getZ());
+        BlockFace face = cache.get(world, key);
+        if (face == null) {
+            if (!(dispenser.getBlockData() instanceof org.bukkit.block.data.type.Dispenser d)) return null;
+            face = d.getFacing();
+            cache.put(world, key, face);
+        }
+        return face;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDispenserPlaced(BlockPlaceEvent event) {
+        if (event.getBlockPlaced().getType() == Material.DISPENSER) facingEpoch.incrementAndGet();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        invalidateFacings(event.getBlocks());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        invalidateFacings(event.getBlocks());
+    }
+
+    // A pushed dispenser keeps its facing but lands on a new position
+    private void invalidateFacings(List<Block> moved) {
+        for (Block b : moved) {
+            if (b.getType() == Material.DISPENSER) {
+                facingEpoch.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private void reject(HandlerStats.Rejection reason, long start, PlacementEvent jfr, Material type, Block target) {
+        stats.recordRejected(reason, System.nanoTime() - start);
+        jfr.finish(reason.name(), type, target);
+    }
+
+    // Caps read the index counters: O(1), no chunk data access. The region cap only sees loaded
+    // chunks; on Folia, placements racing in different regions may overshoot it by a few.
+    private HandlerStats.Rejection checkLimits(SaplingRules r, Block target) {
+        int cx = target.getX() >> 4, cz = target.getZ() >> 4;
+        if (r.maxPerChunk() > 0 && index.chunkCount(target.getWorld(), cx, cz) >= r.maxPerChunk()) {
+            return HandlerStats.Rejection.CHUNK_LIMIT;
+        }
+        if (r.maxPerRegion() > 0 && index.regionCount(target.getWorld(), cx, cz) >= r.maxPerRegion()) {
+            return HandlerStats.Rejection.REGION_LIMIT;
+        }
+        return null;
+    }
+
+    // Shared by players and dispensers: precompiled stage-0 data, no physics, recorded as plugin-placed
+    private void place(SaplingRules r, Material type, Block target) {
+        BlockData data = r.placementData(type);
+        if (data != null) {
+            target.setBlockData(data, false);
+        } else {
+            target.setType(type, false);
+        }
+        registry.track(target);
+        target.getWorld().playSound(target.getLocation(), PLACE_SOUND, 1.0f, 1.0f);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBreak(BlockBreakEvent event) {
+        Block b = event.getBlock();
+        if (index.contains(b)) registry.untrack(b);
+    }
+
+    public SaplingRegistry getRegistry() {
+        return registry;
     }
 
     // Expose counts for metrics charts
     public int getSaplingCount() {
-        return saplings.size();
+        return rules.getSaplingCount();
     }
 
     public int getSoilCount() {
-        return validSoils.size();
+        return rules.getSoilCount();
     }
 
     public java.util.Set<Material> getSaplings() {
-        return java.util.Collections.unmodifiableSet(saplings);
+        return rules.getSaplings();
     }
 
     public java.util.Set<Material> getValidSoils() {
-        return java.util.Collections.unmodifiableSet(validSoils);
+        return rules.getSoils();
     }
 }
@@ -0,0 +1,90 @@
+package com.hro_basti.underwatertrees.listeners;
+
+import com.hro_basti.underwatertrees.stats.HandlerStats;
+import com.hro_basti.underwatertrees.tracking.SaplingIndex;
+import com.hro_basti.underwatertrees.tracking.SaplingRegistry;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Waterlogged;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.StructureGrowEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// Grows trees from plugin-placed saplings in one batch. Vanilla writes the tree block by block with
+// neighbour updates, so every block replacing water causes physics and fluid events that come straight
+// back through the sapling listener. Here the event is cancelled and its block list is written
+// without physics, grouped per chunk section; blocks that can hold water keep the water they replace.
+// Because the event ends up cancelled, MONITOR listeners (block loggers, rollback plugins) with
+// ignoreCancelled see no growth from these saplings.
+public class UnderwaterTreeGrowListener implements Listener {
+
+    // Blocks that count as "water was here": the plain fluid and the underwater plants living in it
+    private static final Set<Material> WATER = EnumSet.of(
+            Material.WATER, Material.BUBBLE_COLUMN, Material.KELP, Material.KELP_PLANT,
+            Material.SEAGRASS, Material.TALL_SEAGRASS);
+
+    // Chunk, then section, then position within the section: consecutive writes stay in one section
+    private static final Comparator<BlockState> SECTION_ORDER = Comparator
+            .comparingInt((BlockState s) -> s.getX() >> 4)
+            .thenComparingInt(s -> s.getZ() >> 4)
+            .thenComparingInt(s -> s.getY() >> 4)
+            .thenComparingInt(s -> SaplingIndex.packLocal(s.getX(), s.getY(), s.getZ()));
+
+    private final SaplingRegistry registry;
+    private final SaplingIndex index;
+    private final HandlerStats stats;
+
+    public UnderwaterTreeGrowListener(SaplingRegistry registry, HandlerStats stats) {
+        this.registry = registry;
+        this.index = registry.getIndex();
+        this.stats = stats;
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onStructureGrow(StructureGrowEvent event) {
+        Location loc = event.getLocation();
+        World world = loc.getWorld();
+        if (world == null || !index.contains(world, loc.getBlockX(), loc.getBlockY(), loc.getBlockZ())) return;
+
+        event.setCancelled(true);
+        writeTree(event.getBlocks());
+    }
+
+    // Also used by the growth engine, which generates trees for final-stage saplings itself
+    public void writeTree(List<BlockState> blocks) {
+        long start = System.nanoTime();
+        List<BlockState> states = new ArrayList<>(blocks);
+        states.sort(SECTION_ORDER);
+        for (BlockState state : states) {
+            Block target = state.getBlock();
+            // Every sapling the tree covers goes, not just the event's one: 2x2 trees grow from four
+            boolean wasSapling = index.contains(target);
+            if (wasSapling) registry.untrack(target);
+            // Placed saplings replaced water when they were planted
+            if (state.getBlockData() instanceof Waterlogged w && (wasSapling || isWater(target))) {
+                w.setWaterlogged(true);
+                state.setBlockData(w);
+            }
+            // force: the block type changes; no physics: nothing cascades back into the handlers
+            state.update(true, false);
+        }
+        stats.recordTreeGrowth(states.size(), System.nanoTime() - start);
+    }
+
+    private static boolean isWater(Block b) {
+        if (WATER.contains(b.getType())) return true;
+        BlockData data = b.getBlockData();
+        return data instanceof Waterlogged w && w.isWaterlogged();
+    }
+}
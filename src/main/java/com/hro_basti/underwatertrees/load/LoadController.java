@@ -0,0 +1,100 @@
+package com.hro_basti.underwatertrees.load;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+
+// Switches protection between full and cheap checks from the server's average tick time (MSPT).
+// Sampled once a second on the global region thread. Hysteresis in both value and time: the
+// server has to stay above the degrade threshold for a few samples to degrade, and below the
+// lower recover threshold for longer to recover, so a single slow tick or a load hovering at the
+// threshold never makes the mode flap.
+public class LoadController {
+
+    public enum Mode { NORMAL, DEGRADED }
+
+    public record Settings(boolean enabled, double degradeAboveMspt, double recoverBelowMspt, int degradeSamples,
+                           int recoverSamples) {
+        public static Settings read(ConfigurationSection cfg) {
+            double degrade = cfg.getDouble("load-adaptation.degrade-above-mspt", 45.0);
+            // A recover threshold at or above the degrade one would disable the hysteresis
+            double recover = Math.min(cfg.getDouble("load-adaptation.recover-below-mspt", 35.0), degrade - 1.0);
+            return new Settings(cfg.getBoolean("load-adaptation.enabled", true), degrade, recover,
+                    Math.max(1, cfg.getInt("load-adaptation.degrade-after-seconds", 3)),
+                    Math.max(1, cfg.getInt("load-adaptation.recover-after-seconds", 10)));
+        }
+    }
+
+    private final DoubleSupplier mspt;
+    // Runs on the sampling thread with the new mode
+    private final Consumer<Mode> onChange;
+    private volatile Settings settings;
+    private volatile Mode mode = Mode.NORMAL;
+    private volatile double lastMspt;
+    private volatile long switches;
+    private volatile long modeSinceNanos = System.nanoTime();
+    // Sampling thread only
+    private int streak;
+
+    public LoadController(DoubleSupplier mspt, Settings settings, Consumer<Mode> onChange) {
+        this.mspt = mspt;
+        this.settings = settings;
+        this.onChange = onChange;
+    }
+
+    public void applySettings(Settings settings) {
+        this.settings = settings;
+        streak = 0;
+        if (!settings.enabled()) switchTo(Mode.NORMAL);
+    }
+
+    public void sample() {
+        Settings s = settings;
+        if (!s.enabled()) return;
+        double v = mspt.getAsDouble();
+        // No reading (Folia has no global tick): stay where we are
+        if (Double.isNaN(v)) return;
+        lastMspt = v;
+        boolean pressing = mode == Mode.NORMAL ? v > s.degradeAboveMspt() : v < s.recoverBelowMspt();
+        streak = pressing ? streak + 1 : 0;
+        if (mode == Mode.NORMAL && streak >= s.degradeSamples()) {
+            switchTo(Mode.DEGRADED);
+        } else if (mode == Mode.DEGRADED && streak >= s.recoverSamples()) {
+            switchTo(Mode.NORMAL);
+        }
+    }
+
+    private void switchTo(Mode next) {
+        if (mode == next) return;
+        mode = next;
+        streak = 0;
+        switches++;
+        modeSinceNanos = System.nanoTime();
+        onChange.accept(next);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isDegraded() {
+        return mode == Mode.DEGRADED;
+    }
+
+    public double getLastMspt() {
+        return lastMspt;
+    }
+
+    public long getSwitches() {
+        return switches;
+    }
+
+    public long getModeSinceNanos() {
+        return modeSinceNanos;
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+}
@@ -0,0 +1,297 @@
+package com.hro_basti.underwatertrees.scan;
+
+import com.hro_basti.underwatertrees.listeners.SaplingRules;
+import com.hro_basti.underwatertrees.scheduler.PluginScheduler;
+import com.hro_basti.underwatertrees.tracking.SaplingIndex;
+import com.hro_basti.underwatertrees.tracking.SaplingRegistry;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+// One-off scan of a square of chunks for saplings placed before the plugin was installed
+// (sapling on valid soil with water directly above), registering them like plugin placements.
+// Pipeline, driven by a global-region timer:
+//  1. request a few chunks per tick (Paper loads them off-thread; ungenerated chunks are skipped)
+//  2. on load, take a ChunkSnapshot on the owning thread and hold the chunk with a plugin ticket
+//  3. analyse the snapshot on a fork-join pool
+//  4. apply results back on the owning thread a few chunks per tick, re-checking the live blocks
+// In-flight chunks are bounded, so memory and tickets stay small whatever the radius.
+public class WorldScan {
+
+    public interface Progress {
+        void progress(WorldScan scan);
+
+        void finished(WorldScan scan);
+    }
+
+    private record Result(Chunk chunk, int[] packed) {
+    }
+
+    private static final int PROGRESS_INTERVAL_TICKS = 100;
+
+    private final Plugin plugin;
+    private final PluginScheduler scheduler;
+    private final SaplingRegistry registry;
+    private final SaplingRules rules;
+    private final World world;
+    private final int radius;
+    private final int chunksPerTick;
+    private final int maxInFlight;
+    private final Progress progress;
+    private final ForkJoinPool pool;
+    private final boolean regionised;
+
+    // Chunk keys in rings around the centre, nearest first
+    private final long[] chunks;
+    private int cursor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<Result> results = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger done = new AtomicInteger();
+    private final AtomicInteger withSaplings = new AtomicInteger();
+    private final AtomicLong found = new AtomicLong();
+    private final long startNanos = System.nanoTime();
+    private volatile boolean cancelled;
+    private volatile boolean finished;
+    private ScheduledTask task;
+    private long ticks;
+
+    public WorldScan(Plugin plugin, PluginScheduler scheduler, SaplingRegistry registry, SaplingRules rules,
+                     World world, int centerChunkX, int centerChunkZ, int radius,
+                     int chunksPerTick, int threads, Progress progress) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.registry = registry;
+        this.rules = rules;
+        this.world = world;
+        this.radius = radius;
+        this.chunksPerTick = Math.max(1, chunksPerTick);
+        this.maxInFlight = this.chunksPerTick * 8;
+        this.progress = progress;
+        int parallelism = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.pool = new ForkJoinPool(parallelism);
+        this.regionised = PluginScheduler.isFolia();
+        this.chunks = rings(centerChunkX, centerChunkZ, radius);
+    }
+
+    public void start() {
+        task = scheduler.runGlobalTimer(this::tick, 1L, 1L);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    // Disable/reload: the timer is about to be cancelled, so finish() would never run. Stop the
+    // workers and release held chunks right here; nobody is left to report progress to.
+    public void stop() {
+        cancelled = true;
+        if (finished) return;
+        finished = true;
+        PluginScheduler.cancel(task);
+        pool.shutdownNow();
+        drainResults();
+    }
+
+    private static long[] rings(int cx, int cz, int radius) {
+        int side = 2 * radius + 1;
+        long[] out = new long[side * side];
+        int n = 0;
+        out[n++] = SaplingIndex.chunkKey(cx, cz);
+        for (int r = 1; r <= radius; r++) {
+            for (int i = -r; i <= r; i++) {
+                out[n++] = SaplingIndex.chunkKey(cx + i, cz - r);
+                out[n++] = SaplingIndex.chunkKey(cx + i, cz + r);
+            }
+            for (int i = -r + 1; i <= r - 1; i++) {
+                out[n++] = SaplingIndex.chunkKey(cx - r, cz + i);
+                out[n++] = SaplingIndex.chunkKey(cx + r, cz + i);
+            }
+        }
+        return out;
+    }
+
+    private void tick() {
+        if (finished) return;
+        if (cancelled || !plugin.isEnabled()) {
+            finish();
+            return;
+        }
+        applyResults();
+        requestChunks();
+        if (++ticks % PROGRESS_INTERVAL_TICKS == 0) progress.progress(this);
+        if (cursor >= chunks.length && inFlight.get() == 0 && results.isEmpty()) finish();
+    }
+
+    private void requestChunks() {
+        for (int i = 0; i < chunksPerTick && cursor < chunks.length && inFlight.get() < maxInFlight; i++) {
+            long key = chunks[cursor++];
+            inFlight.incrementAndGet();
+            // Never generate: only existing terrain can hold pre-plugin saplings
+            world.getChunkAtAsync(SaplingIndex.chunkX(key), SaplingIndex.chunkZ(key), false).whenComplete((chunk, ex) -> {
+                if (chunk == null || cancelled) {
+                    if (ex != null) plugin.getLogger().log(Level.FINE, "Scan could not load chunk", ex);
+                    skip();
+                    return;
+                }
+                // Completes on the thread owning the chunk: snapshot here, analyse elsewhere
+                ChunkSnapshot snapshot = chunk.getChunkSnapshot(false, false, false);
+                chunk.addPluginChunkTicket(plugin);
+                try {
+                    pool.execute(() -> analyse(chunk, snapshot));
+                } catch (java.util.concurrent.RejectedExecutionException shutDown) {
+                    release(chunk);
+                    skip();
+                }
+            });
+        }
+    }
+
+    private void analyse(Chunk chunk, ChunkSnapshot snapshot) {
+        int[] packed = cancelled ? null : findSaplings(snapshot, rules, world.getMinHeight(), world.getMaxHeight());
+        if (packed == null || packed.length == 0) {
+            release(chunk);
+            skip();
+            return;
+        }
+        results.add(new Result(chunk, packed));
+        // Raced with finish(): nobody will apply it any more
+        if (finished) drainResults();
+    }
+
+    // Sapling with valid soil below and water above, as chunk-local packed positions
+    static int[] findSaplings(ChunkSnapshot snapshot, SaplingRules rules, int minY, int maxY) {
+        int[] out = null;
+        int n = 0;
+        for (int sectionY = minY; sectionY < maxY; sectionY += 16) {
+            if (snapshot.isSectionEmpty((sectionY - minY) >> 4)) continue;
+            int top = Math.min(sectionY + 16, maxY - 1);
+            for (int y = Math.max(sectionY, minY + 1); y < top; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        if (!rules.isSapling(snapshot.getBlockType(x, y, z))) continue;
+                        if (snapshot.getBlockType(x, y + 1, z) != Material.WATER) continue;
+                        if (!rules.isSoil(snapshot.getBlockType(x, y - 1, z))) continue;
+                        if (out == null) {
+                            out = new int[16];
+                        } else if (n == out.length) {
+                            out = java.util.Arrays.copyOf(out, n * 2);
+                        }
+                        out[n++] = SaplingIndex.packLocal(x, y, z);
+                    }
+                }
+            }
+        }
+        return out == null ? new int[0] : java.util.Arrays.copyOf(out, n);
+    }
+
+    private void applyResults() {
+        for (int i = 0; i < chunksPerTick; i++) {
+            Result r = results.poll();
+            if (r == null) return;
+            if (regionised) {
+                scheduler.runAt(world, r.chunk().getX(), r.chunk().getZ(), () -> apply(r));
+            } else {
+                apply(r);
+            }
+        }
+    }
+
+    private void apply(Result r) {
+        try {
+            if (cancelled) return;
+            int added = registry.trackAll(r.chunk(), verify(r.chunk(), r.packed()));
+            if (added > 0) {
+                found.addAndGet(added);
+                withSaplings.incrementAndGet();
+            }
+        } finally {
+            r.chunk().removePluginChunkTicket(plugin);
+            skip();
+        }
+    }
+
+    // The world may have changed since the snapshot; keep positions that still qualify
+    private int[] verify(Chunk chunk, int[] packed) {
+        int n = 0;
+        int[] out = new int[packed.length];
+        for (int p : packed) {
+            int x = SaplingIndex.unpackX(p), y = SaplingIndex.unpackY(p), z = SaplingIndex.unpackZ(p);
+            if (!rules.isSapling(chunk.getBlock(x, y, z).getType())) continue;
+            if (chunk.getBlock(x, y + 1, z).getType() != Material.WATER) continue;
+            if (!rules.isSoil(chunk.getBlock(x, y - 1, z).getType())) continue;
+            out[n++] = p;
+        }
+        return n == out.length ? out : java.util.Arrays.copyOf(out, n);
+    }
+
+    // Tickets may only be touched on the owning thread; the server drops them on plugin disable
+    private void release(Chunk chunk) {
+        if (!plugin.isEnabled()) return;
+        scheduler.runAt(world, chunk.getX(), chunk.getZ(), () -> chunk.removePluginChunkTicket(plugin));
+    }
+
+    private void skip() {
+        inFlight.decrementAndGet();
+        done.incrementAndGet();
+    }
+
+    private void finish() {
+        finished = true;
+        PluginScheduler.cancel(task);
+        pool.shutdownNow();
+        drainResults();
+        progress.finished(this);
+    }
+
+    // Analysed but unapplied chunks still hold a ticket
+    private void drainResults() {
+        Result r;
+        while ((r = results.poll()) != null) release(r.chunk());
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public int getTotalChunks() {
+        return chunks.length;
+    }
+
+    public int getDoneChunks() {
+        return done.get();
+    }
+
+    public int getChunksWithSaplings() {
+        return withSaplings.get();
+    }
+
+    public long getFound() {
+        return found.get();
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+}
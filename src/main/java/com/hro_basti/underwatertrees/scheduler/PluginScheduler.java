@@ -0,0 +1,76 @@
+package com.hro_basti.underwatertrees.scheduler;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.TimeUnit;
+
+// Thin wrapper over Paper's regionised schedulers. These exist on plain Paper (where they map to
+// the main thread) and on Folia (where they map to region/global/async threads), so every task the
+// plugin schedules goes through here:
+//  - global region: housekeeping that touches plugin state only (config reload, tick epoch)
+//  - region: anything that reads or writes blocks/chunks
+//  - async: network and file work
+public class PluginScheduler {
+
+    private static final boolean FOLIA = detectFolia();
+
+    private final Plugin plugin;
+
+    public PluginScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    private static boolean detectFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    public static boolean isFolia() {
+        return FOLIA;
+    }
+
+    public ScheduledTask runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        return Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, t -> task.run(), Math.max(1L, delayTicks), Math.max(1L, periodTicks));
+    }
+
+    public void runGlobal(Runnable task) {
+        Bukkit.getGlobalRegionScheduler().execute(plugin, task);
+    }
+
+    public void runAt(World world, int chunkX, int chunkZ, Runnable task) {
+        Bukkit.getRegionScheduler().execute(plugin, world, chunkX, chunkZ, task);
+    }
+
+    public void runAt(Location location, Runnable task) {
+        Bukkit.getRegionScheduler().execute(plugin, location, task);
+    }
+
+    public ScheduledTask runAtTimer(World world, int chunkX, int chunkZ, Runnable task, long delayTicks, long periodTicks) {
+        return Bukkit.getRegionScheduler().runAtFixedRate(plugin, world, chunkX, chunkZ, t -> task.run(), Math.max(1L, delayTicks), Math.max(1L, periodTicks));
+    }
+
+    public void runAsync(Runnable task) {
+        Bukkit.getAsyncScheduler().runNow(plugin, t -> task.run());
+    }
+
+    public ScheduledTask runAsyncTimer(Runnable task, long delay, long period, TimeUnit unit) {
+        return Bukkit.getAsyncScheduler().runAtFixedRate(plugin, t -> task.run(), delay, period, unit);
+    }
+
+    public static void cancel(ScheduledTask task) {
+        if (task != null && !task.isCancelled()) task.cancel();
+    }
+
+    public void cancelAll() {
+        Bukkit.getGlobalRegionScheduler().cancelTasks(plugin);
+        Bukkit.getAsyncScheduler().cancelTasks(plugin);
+    }
+}
@@ -0,0 +1,178 @@
+package com.hro_basti.underwatertrees.stats;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+// Runtime counters for the sapling listener. Everything is LongAdder based so region threads
+// (Folia) and the main thread can record concurrently without contention or locks.
+// Only events that concern a tracked sapling are timed; index misses stay on the cheap path.
+public final class HandlerStats {
+
+    // Why an underwater planting attempt (player or dispenser) did not place
+    public enum Rejection { INVALID_SOIL, CHUNK_LIMIT, REGION_LIMIT }
+
+    private final LongAdder placed = new LongAdder();
+    private final LongAdder[] rejected = new LongAdder[Rejection.values().length];
+    private final LongAdder physicsInspected = new LongAdder();
+    private final LongAdder physicsCancelled = new LongAdder();
+    private final LongAdder fluidInspected = new LongAdder();
+    private final LongAdder fluidCancelled = new LongAdder();
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder treeBlocks = new LongAdder();
+
+    private final LatencyHistogram placeLatency = new LatencyHistogram();
+    private final LatencyHistogram physicsLatency = new LatencyHistogram();
+    private final LatencyHistogram fluidLatency = new LatencyHistogram();
+    private final LatencyHistogram reloadLatency = new LatencyHistogram();
+    private final LatencyHistogram growLatency = new LatencyHistogram();
+
+    private volatile long since = System.nanoTime();
+
+    public HandlerStats() {
+        for (int i = 0; i < rejected.length; i++) rejected[i] = new LongAdder();
+    }
+
+    public void recordPlaced(long nanos) {
+        placed.increment();
+        placeLatency.record(nanos);
+    }
+
+    public void recordRejected(Rejection reason, long nanos) {
+        rejected[reason.ordinal()].increment();
+        placeLatency.record(nanos);
+    }
+
+    public void recordPhysics(boolean cancelled, long nanos) {
+        physicsInspected.increment();
+        if (cancelled) physicsCancelled.increment();
+        physicsLatency.record(nanos);
+    }
+
+    public void recordFluid(boolean cancelled, long nanos) {
+        fluidInspected.increment();
+        if (cancelled) fluidCancelled.increment();
+        fluidLatency.record(nanos);
+    }
+
+    // One tree from a tracked sapling written in a batch
+    public void recordTreeGrowth(int blocks, long nanos) {
+        treeBlocks.add(blocks);
+        growLatency.record(nanos);
+    }
+
+    public void recordReload(long nanos) {
+        reloadLatency.record(nanos);
+    }
+
+    public void tick() {
+        ticks.increment();
+    }
+
+    public long getPlaced() {
+        return placed.sum();
+    }
+
+    public long getRejected(Rejection reason) {
+        return rejected[reason.ordinal()].sum();
+    }
+
+    public long getRejectedTotal() {
+        long n = 0;
+        for (LongAdder r : rejected) n += r.sum();
+        return n;
+    }
+
+    public long getPhysicsInspected() {
+        return physicsInspected.sum();
+    }
+
+    public long getPhysicsCancelled() {
+        return physicsCancelled.sum();
+    }
+
+    public long getFluidInspected() {
+        return fluidInspected.sum();
+    }
+
+    public long getFluidCancelled() {
+        return fluidCancelled.sum();
+    }
+
+    public long getTreeBlocks() {
+        return treeBlocks.sum();
+    }
+
+    public long getTicks() {
+        return ticks.sum();
+    }
+
+    public LatencyHistogram getPlaceLatency() {
+        return placeLatency;
+    }
+
+    public LatencyHistogram getPhysicsLatency() {
+        return physicsLatency;
+    }
+
+    public LatencyHistogram getFluidLatency() {
+        return fluidLatency;
+    }
+
+    public LatencyHistogram getGrowLatency() {
+        return growLatency;
+    }
+
+    public LatencyHistogram getReloadLatency() {
+        return reloadLatency;
+    }
+
+    // Time spent in the handlers (excluding reloads) per server tick since the last reset
+    public long getHandlerNanosPerTick() {
+        long t = ticks.sum();
+        if (t == 0) return 0L;
+        return (placeLatency.totalNanos() + physicsLatency.totalNanos() + fluidLatency.totalNanos()
+                + growLatency.totalNanos()) / t;
+    }
+
+    public long getSinceNanos() {
+        return since;
+    }
+
+    // Prometheus families for these counters; sums only, so safe from the exporter's async thread
+    public void writeTo(PrometheusWriter w) {
+        w.counter("underwatertrees_placements_total", "Saplings placed underwater by players and dispensers.", getPlaced());
+        w.header("underwatertrees_placements_rejected_total", "Underwater placement attempts that were refused.", "counter");
+        for (Rejection r : Rejection.values()) {
+            w.sample("underwatertrees_placements_rejected_total", "reason", r.name().toLowerCase(Locale.ROOT), getRejected(r));
+        }
+        w.counter("underwatertrees_physics_inspected_total", "Physics events on tracked saplings.", getPhysicsInspected());
+        w.counter("underwatertrees_physics_cancelled_total", "Physics events cancelled to protect saplings.", getPhysicsCancelled());
+        w.counter("underwatertrees_fluid_inspected_total", "Fluid flow events into tracked saplings.", getFluidInspected());
+        w.counter("underwatertrees_fluid_cancelled_total", "Fluid flow events cancelled to protect saplings.", getFluidCancelled());
+        w.counter("underwatertrees_tree_blocks_total", "Blocks written by batched tree growth.", getTreeBlocks());
+        w.counter("underwatertrees_ticks_total", "Server ticks observed since the last stats reset.", getTicks());
+        w.header("underwatertrees_handler_latency_seconds", "Handler latency for events on tracked saplings.", "histogram");
+        w.histogram("underwatertrees_handler_latency_seconds", "handler", "place", placeLatency);
+        w.histogram("underwatertrees_handler_latency_seconds", "handler", "physics", physicsLatency);
+        w.histogram("underwatertrees_handler_latency_seconds", "handler", "fluid", fluidLatency);
+        w.histogram("underwatertrees_handler_latency_seconds", "handler", "grow", growLatency);
+        w.histogram("underwatertrees_handler_latency_seconds", "handler", "reload", reloadLatency);
+    }
+
+    public void reset() {
+        placed.reset();
+        for (LongAdder r : rejected) r.reset();
+        physicsInspected.reset();
+        physicsCancelled.reset();
+        fluidInspected.reset();
+        fluidCancelled.reset();
+        ticks.reset();
+        treeBlocks.reset();
+        placeLatency.reset();
+        physicsLatency.reset();
+        fluidLatency.reset();
+        reloadLatency.reset();
+        growLatency.reset();
+        since = System.nanoTime();
+    }
+}
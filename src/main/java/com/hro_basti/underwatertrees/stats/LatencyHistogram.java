@@ -0,0 +1,97 @@
+package com.hro_basti.underwatertrees.stats;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fixed-bucket latency histogram, safe to record into from any thread without locking.
+// Buckets are log-linear: four per power of two from 64 ns to ~1 s (at most 25% relative error);
+// bucket 0 takes everything faster, the last one everything slower.
+public final class LatencyHistogram {
+
+    private static final int MIN_EXP = 6;  // 64 ns
+    private static final int MAX_EXP = 30; // ~1.07 s
+    private static final int SUB = 4;
+    private static final int BUCKETS = (MAX_EXP - MIN_EXP) * SUB + 2;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) buckets[i] = new LongAdder();
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < (1L << MIN_EXP)) return 0;
+        int exp = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exp >= MAX_EXP) return BUCKETS - 1;
+        int sub = (int) (nanos >>> (exp - 2)) & (SUB - 1);
+        return 1 + (exp - MIN_EXP) * SUB + sub;
+    }
+
+    // Exclusive upper bound of a bucket; the overflow bucket reports its lower bound
+    static long upperBound(int bucket) {
+        if (bucket == 0) return 1L << MIN_EXP;
+        if (bucket == BUCKETS - 1) return 1L << MAX_EXP;
+        int exp = MIN_EXP + (bucket - 1) / SUB;
+        int sub = (bucket - 1) % SUB;
+        return (long) (SUB + sub + 1) << (exp - 2);
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets[bucket(nanos)].increment();
+        totalNanos.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    public long count() {
+        long n = 0;
+        for (LongAdder b : buckets) n += b.sum();
+        return n;
+    }
+
+    public long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    // Upper bound (ns) of the bucket holding quantile q (0..1); 0 when empty.
+    // Concurrent records may skew a snapshot by a few samples, which is fine for display.
+    public long percentile(double q) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) return 0L;
+        long rank = Math.max(1L, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return upperBound(i);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    // Per-bucket counts (not cumulative) for exporters
+    long[] counts() {
+        long[] out = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) out[i] = buckets[i].sum();
+        return out;
+    }
+
+    static int bucketCount() {
+        return BUCKETS;
+    }
+
+    public void reset() {
+        for (LongAdder b : buckets) b.reset();
+        totalNanos.reset();
+        max.reset();
+    }
+}
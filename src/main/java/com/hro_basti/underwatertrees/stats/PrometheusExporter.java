@@ -0,0 +1,104 @@
+package com.hro_basti.underwatertrees.stats;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Opt-in /metrics endpoint on the JDK's built-in HTTP server, for local Prometheus scrapes.
+// refresh() renders all metrics into a byte array (from an async timer); scrapes only write the
+// latest array, so they never touch server threads or plugin state. Bind to port 0 for an
+// ephemeral port (offline checks: start, refresh, GET http://127.0.0.1:getPort()/metrics).
+public class PrometheusExporter {
+
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final byte[] NOT_READY = "# no snapshot yet\n".getBytes(StandardCharsets.UTF_8);
+
+    private final Logger logger;
+    private final InetSocketAddress address;
+    private final Consumer<PrometheusWriter> collector;
+    private volatile byte[] snapshot = NOT_READY;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PrometheusExporter(Logger logger, String host, int port, Consumer<PrometheusWriter> collector) {
+        this.logger = logger;
+        this.address = new InetSocketAddress(host, port);
+        this.collector = collector;
+    }
+
+    public synchronized void start() throws IOException {
+        if (server != null) return;
+        if (!address.getAddress().isLoopbackAddress()) {
+            logger.warning("Prometheus exporter bound to non-loopback address " + address + "; the endpoint has no authentication.");
+        }
+        HttpServer s = HttpServer.create(address, 0);
+        s.createContext("/metrics", this::handle);
+        // One thread is plenty: a scrape is a single array write
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "UnderwaterTrees-Prometheus");
+            t.setDaemon(true);
+            return t;
+        });
+        s.setExecutor(executor);
+        s.start();
+        server = s;
+    }
+
+    public synchronized void stop() {
+        if (server == null) return;
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+        executor = null;
+    }
+
+    // Render a fresh snapshot; runs on an async thread, collectors must only read thread-safe state
+    public void refresh() {
+        PrometheusWriter w = new PrometheusWriter();
+        try {
+            collector.accept(w);
+        } catch (RuntimeException ex) {
+            logger.log(Level.FINE, "Prometheus collection failed", ex);
+            return;
+        }
+        snapshot = w.toBytes();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = snapshot;
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(method)) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        }
+    }
+
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    // Actual port (differs from the configured one when that was 0); -1 when stopped
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+}
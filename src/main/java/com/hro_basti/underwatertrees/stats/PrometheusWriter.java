@@ -0,0 +1,83 @@
+package com.hro_basti.underwatertrees.stats;
+
+import java.nio.charset.StandardCharsets;
+
+// Renders metrics in the Prometheus text exposition format (version 0.0.4).
+// Each family is written once with its HELP/TYPE header; labelled samples of the same family must
+// be written back to back through sample().
+public final class PrometheusWriter {
+
+    private final StringBuilder out = new StringBuilder(8192);
+
+    public PrometheusWriter counter(String name, String help, long value) {
+        header(name, help, "counter");
+        return sample(name, null, null, value);
+    }
+
+    public PrometheusWriter gauge(String name, String help, double value) {
+        header(name, help, "gauge");
+        return sample(name, null, null, value);
+    }
+
+    public PrometheusWriter header(String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    public PrometheusWriter sample(String name, String label, String labelValue, double value) {
+        out.append(name);
+        if (label != null) out.append('{').append(label).append("=\"").append(labelValue).append("\"}");
+        out.append(' ');
+        number(value);
+        out.append('\n');
+        return this;
+    }
+
+    // Histogram samples for one label value, in seconds. Buckets are merged to powers of two
+    // (64 ns .. ~1 s), which keeps the series count at a quarter of the internal resolution.
+    public PrometheusWriter histogram(String name, String label, String labelValue, LatencyHistogram h) {
+        long[] counts = h.counts();
+        int last = LatencyHistogram.bucketCount() - 1;
+        long cumulative = 0;
+        for (int b = 0; b < last; b++) {
+            cumulative += counts[b];
+            if (b != 0 && (b - 1) % 4 != 3) continue;
+            bucket(name, label, labelValue, seconds(LatencyHistogram.upperBound(b)), cumulative);
+        }
+        cumulative += counts[last];
+        bucket(name, label, labelValue, "+Inf", cumulative);
+        out.append(name).append("_sum{").append(label).append("=\"").append(labelValue).append("\"} ");
+        number(h.totalNanos() / 1e9);
+        out.append('\n');
+        out.append(name).append("_count{").append(label).append("=\"").append(labelValue).append("\"} ")
+                .append(cumulative).append('\n');
+        return this;
+    }
+
+    private void bucket(String name, String label, String labelValue, String le, long cumulative) {
+        out.append(name).append("_bucket{").append(label).append("=\"").append(labelValue)
+                .append("\",le=\"").append(le).append("\"} ").append(cumulative).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    private void number(double v) {
+        if (v == Math.rint(v) && Math.abs(v) < 1e15) {
+            out.append((long) v);
+        } else {
+            out.append(v);
+        }
+    }
+
+    public byte[] toBytes() {
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
@@ -0,0 +1,155 @@
+package com.hro_basti.underwatertrees.tracking;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+// Minimal open-addressing map with primitive long keys (linear probing, backward-shift removal).
+// Used for chunk/block keys on hot paths to avoid boxing Long keys. Not thread-safe.
+public final class LongKeyedMap<V> {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private Object[] values; // null slot = empty
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public LongKeyedMap() {
+        this(16);
+    }
+
+    public LongKeyedMap(int expected) {
+        int cap = Integer.highestOneBit(Math.max(4, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        allocate(cap);
+    }
+
+    private void allocate(int cap) {
+        keys = new long[cap];
+        values = new Object[cap];
+        mask = cap - 1;
+        resizeAt = (int) (cap * LOAD_FACTOR);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int i = mix(key) & mask;
+        Object v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) return (V) v;
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) throw new IllegalArgumentException("null values are not supported");
+        int i = mix(key) & mask;
+        Object v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return (V) v;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size >= resizeAt) rehash(keys.length << 1);
+        return null;
+    }
+
+    public V computeIfAbsent(long key, LongFunction<V> factory) {
+        V v = get(key);
+        if (v == null) {
+            v = factory.apply(key);
+            put(key, v);
+        }
+        return v;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int i = mix(key) & mask;
+        Object v;
+        while ((v = values[i]) != null) {
+            if (keys[i] == key) {
+                shiftBack(i);
+                size--;
+                return (V) v;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void shiftBack(int gap) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            Object v = values[i];
+            if (v == null) break;
+            int home = mix(keys[i]) & mask;
+            // Move entry into the gap if its home slot is not within (gap, i]
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = v;
+                gap = i;
+            }
+        }
+        values[gap] = null;
+        keys[gap] = 0L;
+    }
+
+    private void rehash(int newCap) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCap);
+        for (int j = 0; j < oldValues.length; j++) {
+            Object v = oldValues[j];
+            if (v == null) continue;
+            int i = mix(oldKeys[j]) & mask;
+            while (values[i] != null) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = v;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        Arrays.fill(keys, 0L);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(Entry<V> consumer) {
+        for (int j = 0; j < values.length; j++) {
+            Object v = values[j];
+            if (v != null) consumer.accept(keys[j], (V) v);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Entry<V> {
+        void accept(long key, V value);
+    }
+}
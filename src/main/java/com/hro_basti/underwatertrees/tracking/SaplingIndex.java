@@ -0,0 +1,425 @@
+package com.hro_basti.underwatertrees.tracking;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+
+// In-memory index of tracked sapling positions: world -> chunk key -> per-section 4096-bit masks.
+// Lets the physics/fluid handlers reject blocks in chunks or sections without tracked saplings
+// before touching the block itself.
+// Safe for concurrent region threads (Folia): each world table is guarded by a StampedLock and the
+// hot-path lookup is an optimistic read that only falls back to the read lock on a racing write.
+// Per-chunk and per-region (32x32 chunks, one region file) counts are maintained on every change,
+// so placement caps are O(1). Both only cover loaded chunks and are rebuilt as chunks load.
+public class SaplingIndex {
+
+    public static final int REGION_SHIFT = 5;
+
+    private final Map<UUID, WorldTable> worlds = new ConcurrentHashMap<>();
+    // Single-entry cache: almost all lookups in a burst hit the same world
+    private volatile WorldTable last;
+    private final AtomicInteger trackedCount = new AtomicInteger();
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        // Same layout as Paper's Chunk#getChunkKey
+        return ((long) chunkX & 0xffffffffL) | (((long) chunkZ & 0xffffffffL) << 32);
+    }
+
+    public static int chunkX(long chunkKey) {
+        return (int) chunkKey;
+    }
+
+    public static int chunkZ(long chunkKey) {
+        return (int) (chunkKey >>> 32);
+    }
+
+    public static long regionKey(long chunkKey) {
+        return chunkKey(chunkX(chunkKey) >> REGION_SHIFT, chunkZ(chunkKey) >> REGION_SHIFT);
+    }
+
+    static int bitIndex(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    private WorldTable table(World world, boolean create) {
+        WorldTable t = last;
+        if (t != null && t.world == world) return t;
+        t = create
+                ? worlds.computeIfAbsent(world.getUID(), id -> new WorldTable(world))
+                : worlds.get(world.getUID());
+        if (t != null) last = t;
+        return t;
+    }
+
+    // O(1) check used by the hot paths; false for untracked worlds, chunks and sections
+    public boolean contains(World world, int x, int y, int z) {
+        WorldTable t = table(world, false);
+        if (t == null) return false;
+        long key = chunkKey(x >> 4, z >> 4);
+        StampedLock lock = t.lock;
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            boolean hit;
+            try {
+                ChunkEntry entry = t.chunks.get(key);
+                hit = entry != null && entry.contains(x, y, z);
+            } catch (RuntimeException racedWithResize) {
+                hit = false;
+            }
+            if (lock.validate(stamp)) return hit;
+        }
+        stamp = lock.readLock();
+        try {
+            ChunkEntry entry = t.chunks.get(key);
+            return entry != null && entry.contains(x, y, z);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean contains(Block block) {
+        return contains(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    public boolean hasChunk(World world, int chunkX, int chunkZ) {
+        WorldTable t = table(world, false);
+        if (t == null) return false;
+        long stamp = t.lock.readLock();
+        try {
+            return t.chunks.containsKey(chunkKey(chunkX, chunkZ));
+        } finally {
+            t.lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean add(Block block) {
+        return add(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    public boolean add(World world, int x, int y, int z) {
+        WorldTable t = table(world, true);
+        long stamp = t.lock.writeLock();
+        try {
+            ChunkEntry entry = t.chunks.computeIfAbsent(chunkKey(x >> 4, z >> 4),
+                    k -> new ChunkEntry(world.getMinHeight() >> 4, world.getMaxHeight() >> 4));
+            boolean added = entry.set(x, y, z);
+            if (added) {
+                trackedCount.incrementAndGet();
+                t.addToRegion(chunkKey(x >> 4, z >> 4), 1);
+            }
+            return added;
+        } finally {
+            t.lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean remove(Block block) {
+        return remove(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    public boolean remove(World world, int x, int y, int z) {
+        WorldTable t = table(world, false);
+        if (t == null) return false;
+        long key = chunkKey(x >> 4, z >> 4);
+        long stamp = t.lock.writeLock();
+        try {
+            ChunkEntry entry = t.chunks.get(key);
+            if (entry == null || !entry.clear(x, y, z)) return false;
+            trackedCount.decrementAndGet();
+            t.addToRegion(key, -1);
+            if (entry.count == 0) t.chunks.remove(key);
+            return true;
+        } finally {
+            t.lock.unlockWrite(stamp);
+        }
+    }
+
+    // Replace the tracked positions of one chunk (packed via packLocal), e.g. when it is loaded
+    public void loadChunk(World world, int chunkX, int chunkZ, int[] packed) {
+        unloadChunk(world, chunkX, chunkZ);
+        if (packed == null || packed.length == 0) return;
+        WorldTable t = table(world, true);
+        ChunkEntry entry = new ChunkEntry(world.getMinHeight() >> 4, world.getMaxHeight() >> 4);
+        int baseX = chunkX << 4;
+        int baseZ = chunkZ << 4;
+        for (int p : packed) {
+            entry.set(baseX + unpackX(p), unpackY(p), baseZ + unpackZ(p));
+        }
+        if (entry.count == 0) return;
+        long stamp = t.lock.writeLock();
+        try {
+            long key = chunkKey(chunkX, chunkZ);
+            ChunkEntry previous = t.chunks.put(key, entry);
+            int delta = entry.count - (previous != null ? previous.count : 0);
+            trackedCount.addAndGet(delta);
+            t.addToRegion(key, delta);
+        } finally {
+            t.lock.unlockWrite(stamp);
+        }
+    }
+
+    // Drop a chunk from memory; returns the number of positions that were tracked in it
+    public int unloadChunk(World world, int chunkX, int chunkZ) {
+        WorldTable t = table(world, false);
+        if (t == null) return 0;
+        long stamp = t.lock.writeLock();
+        try {
+            long key = chunkKey(chunkX, chunkZ);
+            ChunkEntry entry = t.chunks.remove(key);
+            if (entry == null) return 0;
+            trackedCount.addAndGet(-entry.count);
+            t.addToRegion(key, -entry.count);
+            return entry.count;
+        } finally {
+            t.lock.unlockWrite(stamp);
+        }
+    }
+
+    public void unloadWorld(World world) {
+        WorldTable t = worlds.remove(world.getUID());
+        if (t != null) {
+            long stamp = t.lock.writeLock();
+            try {
+                t.chunks.forEach((k, e) -> trackedCount.addAndGet(-e.count));
+                t.chunks.clear();
+                t.regions.clear();
+            } finally {
+                t.lock.unlockWrite(stamp);
+            }
+        }
+        WorldTable cached = last;
+        if (cached != null && cached.world == world) last = null;
+    }
+
+    // Packed positions of one chunk for persistence; empty array when nothing is tracked
+    public int[] packedPositions(World world, int chunkX, int chunkZ) {
+        WorldTable t = table(world, false);
+        if (t == null) return new int[0];
+        long stamp = t.lock.readLock();
+        try {
+            ChunkEntry entry = t.chunks.get(chunkKey(chunkX, chunkZ));
+            if (entry == null || entry.count == 0) return new int[0];
+            int[] out = new int[entry.count];
+            int n = 0;
+            for (int s = 0; s < entry.sections.length; s++) {
+                long[] bits = entry.sections[s];
+                if (bits == null) continue;
+                int baseY = (s + entry.minSection) << 4;
+                for (int w = 0; w < 64; w++) {
+                    long word = bits[w];
+                    while (word != 0) {
+                        int i = (w << 6) | Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                        out[n++] = packLocal(i & 15, baseY + (i >>> 8), (i >>> 4) & 15);
+                    }
+                }
+            }
+            return out;
+        } finally {
+            t.lock.unlockRead(stamp);
+        }
+    }
+
+    // Tracked saplings in one chunk; 0 when the chunk is not loaded
+    public int chunkCount(World world, int chunkX, int chunkZ) {
+        WorldTable t = table(world, false);
+        if (t == null) return 0;
+        long stamp = t.lock.readLock();
+        try {
+            ChunkEntry entry = t.chunks.get(chunkKey(chunkX, chunkZ));
+            return entry == null ? 0 : entry.count;
+        } finally {
+            t.lock.unlockRead(stamp);
+        }
+    }
+
+    // Tracked saplings in the loaded chunks of the region holding the given chunk
+    public int regionCount(World world, int chunkX, int chunkZ) {
+        WorldTable t = table(world, false);
+        if (t == null) return 0;
+        long stamp = t.lock.readLock();
+        try {
+            int[] count = t.regions.get(regionKey(chunkKey(chunkX, chunkZ)));
+            return count == null ? 0 : count[0];
+        } finally {
+            t.lock.unlockRead(stamp);
+        }
+    }
+
+    // Chunk or region coordinates with their count
+    public record Hotspot(World world, int x, int z, int count) {
+    }
+
+    // The most populated chunks (or regions) over all worlds, largest first
+    public List<Hotspot> hotspots(boolean regions, int limit) {
+        java.util.PriorityQueue<Hotspot> top = new java.util.PriorityQueue<>(
+                java.util.Comparator.comparingInt(Hotspot::count));
+        for (WorldTable t : worlds.values()) {
+            long stamp = t.lock.readLock();
+            try {
+                if (regions) {
+                    t.regions.forEach((k, c) -> offer(top, new Hotspot(t.world, chunkX(k), chunkZ(k), c[0]), limit));
+                } else {
+                    t.chunks.forEach((k, e) -> offer(top, new Hotspot(t.world, chunkX(k), chunkZ(k), e.count), limit));
+                }
+            } finally {
+                t.lock.unlockRead(stamp);
+            }
+        }
+        List<Hotspot> out = new ArrayList<>(top);
+        out.sort(java.util.Comparator.comparingInt(Hotspot::count).reversed());
+        return out;
+    }
+
+    private static void offer(java.util.PriorityQueue<Hotspot> top, Hotspot h, int limit) {
+        if (limit <= 0) return;
+        if (top.size() < limit) {
+            top.add(h);
+        } else if (top.peek().count() < h.count()) {
+            top.poll();
+            top.add(h);
+        }
+    }
+
+    // Worlds that currently hold tracked chunks (snapshot)
+    public List<World> worlds() {
+        List<World> out = new ArrayList<>(worlds.size());
+        for (WorldTable t : worlds.values()) out.add(t.world);
+        return out;
+    }
+
+    // Keys of the tracked chunks of one world (snapshot), e.g. for round-robin work over all saplings
+    public long[] chunkKeys(World world) {
+        WorldTable t = table(world, false);
+        if (t == null) return new long[0];
+        long stamp = t.lock.readLock();
+        try {
+            long[] out = new long[t.chunks.size()];
+            int[] n = {0};
+            t.chunks.forEach((k, e) -> out[n[0]++] = k);
+            return out;
+        } finally {
+            t.lock.unlockRead(stamp);
+        }
+    }
+
+    // Chunk-local packing: bits 0-3 x, 4-7 z, 8-31 signed y
+    public static int packLocal(int x, int y, int z) {
+        return (y << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    public static int unpackX(int packed) {
+        return packed & 15;
+    }
+
+    public static int unpackZ(int packed) {
+        return (packed >>> 4) & 15;
+    }
+
+    public static int unpackY(int packed) {
+        return packed >> 8;
+    }
+
+    public int getTrackedCount() {
+        return trackedCount.get();
+    }
+
+    public int getTrackedChunkCount() {
+        int n = 0;
+        for (WorldTable t : worlds.values()) {
+            long stamp = t.lock.readLock();
+            try {
+                n += t.chunks.size();
+            } finally {
+                t.lock.unlockRead(stamp);
+            }
+        }
+        return n;
+    }
+
+    public void clear() {
+        worlds.clear();
+        last = null;
+        trackedCount.set(0);
+    }
+
+    private static final class WorldTable {
+        final World world;
+        final LongKeyedMap<ChunkEntry> chunks = new LongKeyedMap<>(64);
+        // Region key -> single-element counter; only touched under the write lock
+        final LongKeyedMap<int[]> regions = new LongKeyedMap<>(16);
+        final StampedLock lock = new StampedLock();
+
+        WorldTable(World world) {
+            this.world = world;
+        }
+
+        void addToRegion(long chunkKey, int delta) {
+            if (delta == 0) return;
+            long key = regionKey(chunkKey);
+            int[] count = regions.computeIfAbsent(key, k -> new int[1]);
+            count[0] += delta;
+            if (count[0] <= 0) regions.remove(key);
+        }
+    }
+
+    // Per-chunk bit storage; a section array is only allocated once it holds a sapling
+    static final class ChunkEntry {
+        final int minSection;
+        final long[][] sections;
+        int count;
+
+        ChunkEntry(int minSection, int maxSectionExclusive) {
+            this.minSection = minSection;
+            this.sections = new long[Math.max(1, maxSectionExclusive - minSection)][];
+        }
+
+        boolean contains(int x, int y, int z) {
+            int s = (y >> 4) - minSection;
+            if (s < 0 || s >= sections.length) return false;
+            long[] bits = sections[s];
+            if (bits == null) return false;
+            int i = bitIndex(x, y, z);
+            return (bits[i >>> 6] & (1L << i)) != 0;
+        }
+
+        boolean set(int x, int y, int z) {
+            int s = (y >> 4) - minSection;
+            if (s < 0 || s >= sections.length) return false;
+            long[] bits = sections[s];
+            if (bits == null) bits = sections[s] = new long[64];
+            int i = bitIndex(x, y, z);
+            long m = 1L << i;
+            if ((bits[i >>> 6] & m) != 0) return false;
+            bits[i >>> 6] |= m;
+            count++;
+            return true;
+        }
+
+        boolean clear(int x, int y, int z) {
+            int s = (y >> 4) - minSection;
+            if (s < 0 || s >= sections.length) return false;
+            long[] bits = sections[s];
+            if (bits == null) return false;
+            int i = bitIndex(x, y, z);
+            long m = 1L << i;
+            if ((bits[i >>> 6] & m) == 0) return false;
+            bits[i >>> 6] &= ~m;
+            count--;
+            if (isEmpty(bits)) sections[s] = null;
+            return true;
+        }
+
+        private static boolean isEmpty(long[] bits) {
+            for (long l : bits) if (l != 0) return false;
+            return true;
+        }
+    }
+}
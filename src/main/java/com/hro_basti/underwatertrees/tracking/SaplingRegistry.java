@@ -0,0 +1,164 @@
+package com.hro_basti.underwatertrees.tracking;
+
+import com.hro_basti.underwatertrees.Plugin;
+import com.hro_basti.underwatertrees.scheduler.PluginScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+// Persistent record of saplings placed underwater by this plugin.
+// Source of truth is the chunk PersistentDataContainer (int[] of chunk-local packed positions);
+// the in-memory SaplingIndex only holds chunks that are currently loaded. Changes only mark the chunk
+// dirty; its PDC is written when the chunk unloads, when the world saves and on disable, so a burst
+// of placements in one chunk costs one array copy instead of one per sapling.
+public class SaplingRegistry {
+
+    private final NamespacedKey key;
+    private final Logger logger;
+    private final SaplingIndex index = new SaplingIndex();
+    // Chunk keys whose PDC is behind the index, per world. Whoever removes a key writes the chunk,
+    // so a save racing an unload on Folia writes it exactly once.
+    private final Map<UUID, Set<Long>> dirty = new ConcurrentHashMap<>();
+
+    public SaplingRegistry(Plugin plugin) {
+        this(new NamespacedKey(plugin, "saplings"), plugin.getLogger());
+    }
+
+    // No live plugin needed (benchmarks, tools)
+    public SaplingRegistry(NamespacedKey key, Logger logger) {
+        this.key = key;
+        this.logger = logger;
+    }
+
+    public SaplingIndex getIndex() {
+        return index;
+    }
+
+    public boolean isTracked(Block block) {
+        return index.contains(block);
+    }
+
+    public void track(Block block) {
+        if (index.add(block)) markDirty(block.getWorld(), block.getX() >> 4, block.getZ() >> 4);
+    }
+
+    public void untrack(Block block) {
+        if (index.remove(block)) markDirty(block.getWorld(), block.getX() >> 4, block.getZ() >> 4);
+    }
+
+    // Bulk registration of chunk-local packed positions (world scan).
+    // Returns how many positions were not tracked before.
+    public int trackAll(Chunk chunk, int[] packed) {
+        World world = chunk.getWorld();
+        int baseX = chunk.getX() << 4, baseZ = chunk.getZ() << 4;
+        int added = 0;
+        for (int p : packed) {
+            if (index.add(world, baseX + SaplingIndex.unpackX(p), SaplingIndex.unpackY(p), baseZ + SaplingIndex.unpackZ(p))) added++;
+        }
+        if (added > 0) markDirty(world, chunk.getX(), chunk.getZ());
+        return added;
+    }
+
+    // Called on ChunkLoadEvent; chunks without our key cost a single PDC lookup
+    public void loadChunk(Chunk chunk) {
+        PersistentDataContainer pdc = chunk.getPersistentDataContainer();
+        int[] packed = pdc.get(key, PersistentDataType.INTEGER_ARRAY);
+        if (packed == null || packed.length == 0) return;
+        index.loadChunk(chunk.getWorld(), chunk.getX(), chunk.getZ(), packed);
+    }
+
+    // Called on ChunkUnloadEvent, before the server saves the chunk
+    public void unloadChunk(Chunk chunk) {
+        World world = chunk.getWorld();
+        if (clean(world, SaplingIndex.chunkKey(chunk.getX(), chunk.getZ()))) persist(chunk);
+        index.unloadChunk(world, chunk.getX(), chunk.getZ());
+    }
+
+    public void unloadWorld(World world) {
+        save(world, null);
+        dirty.remove(world.getUID());
+        index.unloadWorld(world);
+    }
+
+    // Write the dirty chunks of a world that are still loaded (WorldSaveEvent). With a scheduler each
+    // chunk is written on its region thread (Folia), otherwise inline.
+    public void save(World world, PluginScheduler regions) {
+        Set<Long> keys = dirty.get(world.getUID());
+        if (keys == null || keys.isEmpty()) return;
+        for (long chunkKey : List.copyOf(keys)) {
+            int chunkX = SaplingIndex.chunkX(chunkKey), chunkZ = SaplingIndex.chunkZ(chunkKey);
+            if (regions == null) {
+                saveChunk(world, chunkKey);
+            } else {
+                regions.runAt(world, chunkX, chunkZ, () -> saveChunk(world, chunkKey));
+            }
+        }
+    }
+
+    // On disable: everything still dirty, inline
+    public void saveAll() {
+        for (World world : Bukkit.getWorlds()) {
+            try {
+                save(world, null);
+            } catch (RuntimeException ex) {
+                // Folia outside shutdown: chunks are only accessible from their region thread
+                logger.warning("Could not save tracked saplings in " + world.getName() + ": " + ex.getMessage());
+            }
+        }
+    }
+
+    private void saveChunk(World world, long chunkKey) {
+        int chunkX = SaplingIndex.chunkX(chunkKey), chunkZ = SaplingIndex.chunkZ(chunkKey);
+        // Not loaded: unloadChunk already wrote it
+        if (!world.isChunkLoaded(chunkX, chunkZ)) return;
+        if (clean(world, chunkKey)) persist(world.getChunkAt(chunkX, chunkZ));
+    }
+
+    private void markDirty(World world, int chunkX, int chunkZ) {
+        dirty.computeIfAbsent(world.getUID(), id -> ConcurrentHashMap.newKeySet()).add(SaplingIndex.chunkKey(chunkX, chunkZ));
+    }
+
+    // True if the chunk was dirty; the caller writes it
+    private boolean clean(World world, long chunkKey) {
+        Set<Long> keys = dirty.get(world.getUID());
+        return keys != null && keys.remove(chunkKey);
+    }
+
+    // Pick up chunks that were already loaded before the plugin was enabled
+    public void loadAll(boolean logStats) {
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                loadChunk(chunk);
+            }
+        }
+        if (logStats) {
+            logger.info("Tracking " + index.getTrackedCount() + " underwater saplings in " + index.getTrackedChunkCount() + " loaded chunks.");
+        }
+    }
+
+    public void clear() {
+        dirty.clear();
+        index.clear();
+    }
+
+    private void persist(Chunk chunk) {
+        int[] packed = index.packedPositions(chunk.getWorld(), chunk.getX(), chunk.getZ());
+        PersistentDataContainer pdc = chunk.getPersistentDataContainer();
+        if (packed.length == 0) {
+            pdc.remove(key);
+        } else {
+            pdc.set(key, PersistentDataType.INTEGER_ARRAY, packed);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.hro_basti.underwatertrees.update;
+
+import com.hro_basti.underwatertrees.io.WriteBehind;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+// On-disk cache for the update checker: validators (ETag/Last-Modified) and last body per source,
+// the last answer and the failure backoff state. Survives restarts so a fresh answer is reused
+// instead of hitting the network again. Accessed from the checker's async thread only.
+class UpdateCache {
+
+    private final Path dir;
+    private final Path metaFile;
+    private final Properties meta = new Properties();
+    private final WriteBehind writer;
+    // Bodies stored this session, served from memory while (and after) their write is queued
+    private final Map<String, byte[]> bodies = new HashMap<>();
+
+    UpdateCache(Path dir, WriteBehind writer) {
+        this.dir = dir;
+        this.metaFile = dir.resolve("update.properties");
+        this.writer = writer;
+    }
+
+    void load() {
+        if (!Files.isRegularFile(metaFile)) return;
+        try (InputStream in = Files.newInputStream(metaFile)) {
+            meta.load(in);
+        } catch (IOException | IllegalArgumentException ex) {
+            // Corrupt cache is not fatal: start over
+            meta.clear();
+        }
+    }
+
+    // Queued on the plugin's writer; a later save replaces one still waiting
+    void save() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        meta.store(out, "UnderwaterTrees update check cache");
+        writer.write(metaFile, out.toByteArray());
+    }
+
+    String etag(String source) {
+        return meta.getProperty(source + ".etag");
+    }
+
+    String lastModified(String source) {
+        return meta.getProperty(source + ".last-modified");
+    }
+
+    void storeValidators(String source, String etag, String lastModified) {
+        put(source + ".etag", etag);
+        put(source + ".last-modified", lastModified);
+    }
+
+    // Cached body of the last 200 response, re-read when the server answers 304
+    InputStream openBody(String source) throws IOException {
+        byte[] body = bodies.get(source);
+        if (body != null) return new ByteArrayInputStream(body);
+        Path f = dir.resolve(source + ".json");
+        return Files.isRegularFile(f) ? Files.newInputStream(f) : null;
+    }
+
+    boolean hasBody(String source) {
+        return bodies.containsKey(source) || Files.isRegularFile(dir.resolve(source + ".json"));
+    }
+
+    // A complete 200 body (collected while it was parsed), queued on the plugin's writer
+    void storeBody(String source, byte[] body) {
+        bodies.put(source, body);
+        writer.write(dir.resolve(source + ".json"), body);
+    }
+
+    UpdateChecker.Result result() {
+        String checked = meta.getProperty("result.checked-at");
+        if (checked == null) return null;
+        return new UpdateChecker.Result(
+                Boolean.parseBoolean(meta.getProperty("result.available")),
+                meta.getProperty("result.version"),
+                meta.getProperty("result.source"),
+                meta.getProperty("result.url"),
+                parseLong(checked),
+                meta.getProperty("result.settings", ""));
+    }
+
+    void storeResult(UpdateChecker.Result r) {
+        put("result.available", Boolean.toString(r.updateAvailable()));
+        put("result.version", r.version());
+        put("result.source", r.source());
+        put("result.url", r.url());
+        put("result.checked-at", Long.toString(r.checkedAt()));
+        put("result.settings", r.settings());
+    }
+
+    int failures() {
+        return (int) parseLong(meta.getProperty("backoff.failures"));
+    }
+
+    long nextAttemptAt() {
+        return parseLong(meta.getProperty("backoff.next-attempt-at"));
+    }
+
+    void storeBackoff(int failures, long nextAttemptAt) {
+        put("backoff.failures", Integer.toString(failures));
+        put("backoff.next-attempt-at", Long.toString(nextAttemptAt));
+    }
+
+    private void put(String key, String value) {
+        if (value == null) {
+            meta.remove(key);
+        } else {
+            meta.setProperty(key, value);
+        }
+    }
+
+    private static long parseLong(String s) {
+        if (s == null) return 0L;
+        try { return Long.parseLong(s.trim()); } catch (NumberFormatException e) { return 0L; }
+    }
+}
@@ -1,186 +1,357 @@
 package com.hro_basti.underwatertrees.update;
 
 import com.hro_basti.underwatertrees.Plugin;
+import com.hro_basti.underwatertrees.io.WriteBehind;
 import org.bukkit.Bukkit;
-
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
 import java.time.Duration;
 import java.util.List;
 import java.util.Locale;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-public class UpdateChecker {
-    private final Plugin plugin;
-    private volatile boolean updateAvailable = false;
-    private volatile String remoteVersion = null;
-    private volatile String remoteSource = null;
-    private volatile String remoteUrl = null;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class UpdateChecker implements AutoCloseable {
+    private final Host host;
+    private final String modrinthApi;
+    private final String hangarApi;
+    private final UpdateCache cache;
+    private final Clock clock;
+    // One client for the plugin lifetime (connection pool, HTTP/2 reuse)
+    private final HttpClient client;
+    private volatile Result current = Result.NONE;
+    private CompletableFuture<Result> inFlight;
+    private boolean cacheLoaded;
 
     private static final Duration TIMEOUT = Duration.ofSeconds(5);
     private static final String MODRINTH_SLUG = "underwatertrees";
     private static final String HANGAR_SLUG = "hro_basti/underwatertrees";
+    private static final long BACKOFF_BASE_MS = 60_000L;
+    private static final long BACKOFF_MAX_MS = 6L * 60L * 60L * 1000L;
+    // A cached answer counts as fresh slightly before the interval ends so the periodic task
+    // does not skip a whole period because of scheduling drift
+    private static final long FRESHNESS_SLACK_MS = 60_000L;
 
     public UpdateChecker(Plugin plugin) {
-        this.plugin = plugin;
+        this(plugin, "https://api.modrinth.com/v2", "https://hangar.papermc.io/api/v1",
+                plugin.getDataFolder().toPath().resolve("cache"), Clock.systemUTC());
+    }
+
+    // API base URLs, cache location and clock are injectable so the checker can run against a local stub server
+    public UpdateChecker(Plugin plugin, String modrinthApi, String hangarApi, Path cacheDir, Clock clock) {
+        this(Host.of(plugin), modrinthApi, hangarApi, cacheDir, clock);
+    }
+
+    UpdateChecker(Host host, String modrinthApi, String hangarApi, Path cacheDir, Clock clock) {
+        this.host = host;
+        this.modrinthApi = modrinthApi;
+        this.hangarApi = hangarApi;
+        this.cache = new UpdateCache(cacheDir, host.writer());
+        this.clock = clock;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    // Everything the checker takes from the plugin, so tests can run it without a server. Config is
+    // a supplier: reloads swap the whole configuration object.
+    record Host(Logger logger, Supplier<? extends ConfigurationSection> config, Executor async, WriteBehind writer,
+                String localVersion, String minecraftVersion) {
+        static Host of(Plugin plugin) {
+            return new Host(plugin.getLogger(), plugin::getConfig, plugin.getScheduler()::runAsync, plugin.getWriter(),
+                    localVersion(plugin), Bukkit.getMinecraftVersion());
+        }
+
+        private static String localVersion(Plugin plugin) {
+            try {
+                String v = plugin.getPluginMeta().getVersion();
+                return v != null ? v : "0.0.0";
+            } catch (Throwable t) {
+                String v = plugin.getDescription().getVersion();
+                return v != null ? v : "0.0.0";
+            }
+        }
+    }
+
+    // Outcome of one check; settings is a fingerprint of the filters the answer was computed with
+    public record Result(boolean updateAvailable, String version, String source, String url, long checkedAt, String settings) {
+        static final Result NONE = new Result(false, null, null, null, 0L, "");
     }
 
     public boolean isUpdateAvailable() {
-        return updateAvailable;
+        return current.updateAvailable();
     }
 
     public String getRemoteVersion() {
-        return remoteVersion;
+        return current.version();
     }
 
     public String getRemoteSource() {
-        return remoteSource;
+        return current.source();
     }
 
     public String getRemoteUrl() {
-        return remoteUrl;
+        return current.url();
+    }
+
+    public Result getLastResult() {
+        return current;
     }
 
-    public void checkNowAsync() {
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, this::checkOnce);
+    // Completes with the current answer once the check (or cache lookup) is done. Concurrent
+    // callers share one in-flight check. force=true bypasses freshness and backoff.
+    public synchronized CompletableFuture<Result> check(boolean force) {
+        if (inFlight != null && !inFlight.isDone()) return inFlight;
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        inFlight = future;
+        host.async().execute(() -> {
+            try {
+                future.complete(checkOnce(force));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
     }
 
-    private void checkOnce() {
-        if (!plugin.getConfig().getBoolean("update-check", true)) return;
-        // update-sources as numeric mode: 0 = both (modrinth, hangar), 1 = modrinth only, 2 = hangar only
-        int mode = 0;
-        try { mode = plugin.getConfig().getInt("update-sources", 0); } catch (Exception ignored) {}
-        List<String> sources = switch (mode) {
-            case 1 -> List.of("modrinth");
-            case 2 -> List.of("hangar");
-            default -> List.of("modrinth", "hangar");
-        };
-
-        for (String src : sources) {
-            String s = src.toLowerCase(Locale.ROOT);
+    @Override
+    public void close() {
+        client.close();
+    }
+
+    private Result checkOnce(boolean force) {
+        ConfigurationSection config = host.config().get();
+        if (!config.getBoolean("update-check", true)) return current;
+        if (!cacheLoaded) {
+            cache.load();
+            cacheLoaded = true;
+        }
+        Settings settings = Settings.read(config, host.minecraftVersion(), host.localVersion());
+        long now = clock.millis();
+        long interval = Math.max(1, config.getLong("update-interval-hours", 24)) * 60L * 60L * 1000L;
+
+        // Fresh answer on disk for the same settings (also across restarts): no network
+        Result cached = cache.result();
+        if (cached != null && cached.settings().equals(settings.fingerprint())) {
+            if (!force && now - cached.checkedAt() < interval - FRESHNESS_SLACK_MS) {
+                current = cached;
+                return cached;
+            }
+        }
+        // Still backing off after failures: keep whatever we knew
+        if (!force && now < cache.nextAttemptAt()) {
+            if (cached != null && cached.settings().equals(settings.fingerprint())) current = cached;
+            return current;
+        }
+
+        boolean reachable = false;
+        Result found = null;
+        for (String s : settings.sources()) {
             try {
                 if (s.equals("modrinth")) {
-                    if (checkModrinth()) return;
+                    found = checkModrinth(settings, now);
                 } else if (s.equals("hangar")) {
-                    if (checkHangar()) return;
+                    found = checkHangar(settings, now);
                 }
+                reachable = true;
+                if (found != null) break;
             } catch (Exception ex) {
-                plugin.getLogger().fine("Update check failed for source: " + s + " - " + ex.getMessage());
+                if (ex instanceof InterruptedException) Thread.currentThread().interrupt();
+                host.logger().fine("Update check failed for source: " + s + " - " + ex.getMessage());
             }
         }
+
+        if (!reachable) {
+            int failures = cache.failures() + 1;
+            long delay = backoffDelay(failures);
+            cache.storeBackoff(failures, now + delay);
+            saveCache();
+            host.logger().fine("Update check failed " + failures + " time(s); next attempt in " + (delay / 1000L) + "s");
+            return current;
+        }
+
+        Result result = found != null ? found : new Result(false, null, null, null, now, settings.fingerprint());
+        cache.storeBackoff(0, 0L);
+        cache.storeResult(result);
+        saveCache();
+        current = result;
+        return result;
     }
 
-    private boolean checkModrinth() throws Exception {
-        String slug = MODRINTH_SLUG;
-        String url = "https://api.modrinth.com/v2/project/" + slug + "/version";
-        String body = fetch(url);
-        if (body == null || body.isEmpty()) return false;
-
-        boolean includePre = plugin.getConfig().getBoolean("include-prereleases", false);
-        boolean filterByMc = plugin.getConfig().getBoolean("filter-by-server-version", true);
-        String mc = Bukkit.getMinecraftVersion(); // e.g., 1.21.1
-        String mcPrefix = mc.contains(".") ? mc.substring(0, mc.lastIndexOf('.')) : mc; // 1.21
-
-        // Iterate over occurrences of objects by version_number and select first matching constraints
-        Pattern p = Pattern.compile("\\{[^}]*\\\"version_number\\\":\\\"([^\\\"]+)\\\"[^}]*} ");
-        Matcher m = p.matcher(body + " "); // add space to help regex termination
-        while (m.find()) {
-            int start = m.start();
-            int end = m.end();
-            String obj = body.substring(start, end);
-            String ver = m.group(1);
-            if (!includePre && obj.contains("\"version_type\":\"beta\"") || obj.contains("\"version_type\":\"alpha\"")) {
-                continue;
-            }
-            if (!(obj.contains("paper") || obj.contains("Paper"))) continue;
-            if (filterByMc && !(obj.contains("\"" + mc + "\"") || obj.contains("\"" + mcPrefix + "\""))) {
-                // Require exact MC or same major.minor
-                continue;
-            }
-            String local = getLocalVersion();
-            if (isNewer(ver, local)) {
-                updateAvailable = true;
-                remoteVersion = ver;
-                remoteSource = "modrinth";
-                remoteUrl = "https://modrinth.com/plugin/" + slug + "/version/" + ver;
-            } else {
-                updateAvailable = false;
-            }
-            return true;
+    // Exponential backoff with "equal jitter": half the delay fixed, half random
+    static long backoffDelay(int failures) {
+        int exp = Math.min(failures - 1, 20);
+        long delay = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << exp);
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    private void saveCache() {
+        try {
+            cache.save();
+        } catch (IOException ex) {
+            host.logger().log(Level.FINE, "Could not write update cache", ex);
+        }
+    }
+
+    // Config-derived filters, read once per check
+    record Settings(List<String> sources, VersionFeedParser.Filter filter, String local) {
+        static Settings read(ConfigurationSection config, String mc, String local) {
+            // update-sources as numeric mode: 0 = both (modrinth, hangar), 1 = modrinth only, 2 = hangar only
+            int mode = 0;
+            try { mode = config.getInt("update-sources", 0); } catch (Exception ignored) {}
+            List<String> sources = switch (mode) {
+                case 1 -> List.of("modrinth");
+                case 2 -> List.of("hangar");
+                default -> List.of("modrinth", "hangar");
+            };
+            boolean includePre = config.getBoolean("include-prereleases", false);
+            boolean filterByMc = config.getBoolean("filter-by-server-version", true);
+            String mcPrefix = mc.contains(".") ? mc.substring(0, mc.lastIndexOf('.')) : mc; // 1.21.1 -> 1.21
+            return new Settings(sources, new VersionFeedParser.Filter(includePre, filterByMc, mc, mcPrefix), local);
+        }
+
+        String fingerprint() {
+            return String.join(",", sources) + "|" + filter.includePre() + "|" + filter.filterByMc() + "|" + filter.mc() + "|" + local;
         }
-        return false;
     }
 
-    private boolean checkHangar() throws Exception {
+    private Result checkModrinth(Settings s, long now) throws IOException, InterruptedException {
+        String slug = MODRINTH_SLUG;
+        String ver = fetch("modrinth", modrinthApi + "/project/" + slug + "/version",
+                in -> VersionFeedParser.firstModrinthMatch(in, s.filter()));
+        if (ver == null) return null;
+        boolean newer = isNewer(ver, s.local());
+        return new Result(newer, newer ? ver : null, newer ? "modrinth" : null,
+                newer ? "https://modrinth.com/plugin/" + slug + "/version/" + ver : null, now, s.fingerprint());
+    }
+
+    private Result checkHangar(Settings s, long now) throws IOException, InterruptedException {
         String slug = HANGAR_SLUG;
-        String url = "https://hangar.papermc.io/api/v1/projects/" + slug + "/versions?limit=20";
-        String body = fetch(url);
-        if (body == null || body.isEmpty()) return false;
-
-        boolean includePre = plugin.getConfig().getBoolean("include-prereleases", false);
-        boolean filterByMc = plugin.getConfig().getBoolean("filter-by-server-version", true);
-        String mc = Bukkit.getMinecraftVersion();
-        String mcPrefix = mc.contains(".") ? mc.substring(0, mc.lastIndexOf('.')) : mc;
-
-        // Roughly find version entries; prefer channel Release
-        Pattern p = Pattern.compile("\\{[^}]*\\}");
-        Matcher m = p.matcher(body);
-        while (m.find()) {
-            String obj = m.group();
-            boolean isRelease = obj.contains("Release") || obj.contains("\"channel\":\"Release\"");
-            if (!includePre && !isRelease) continue;
-            if (!(obj.contains("PAPER") || obj.contains("paper"))) continue;
-            if (filterByMc && !(obj.contains(mc) || obj.contains(mcPrefix))) continue;
-
-            String ver = extractAny(obj, List.of("\"name\":\"", "\"version\":\""));
-            if (ver == null) continue;
-            String local = getLocalVersion();
-            if (isNewer(ver, local)) {
-                updateAvailable = true;
-                remoteVersion = ver;
-                remoteSource = "hangar";
-                remoteUrl = "https://hangar.papermc.io/" + slug + "/versions";
-            } else {
-                updateAvailable = false;
-            }
-            return true;
+        String ver = fetch("hangar", hangarApi + "/projects/" + slug + "/versions?limit=20",
+                in -> VersionFeedParser.firstHangarMatch(in, s.filter()));
+        if (ver == null) return null;
+        boolean newer = isNewer(ver, s.local());
+        return new Result(newer, newer ? ver : null, newer ? "hangar" : null,
+                newer ? "https://hangar.papermc.io/" + slug + "/versions" : null, now, s.fingerprint());
+    }
+
+    @FunctionalInterface
+    private interface FeedReader {
+        String read(Reader in) throws IOException;
+    }
+
+    // Conditional GET: sends the stored ETag/Last-Modified and re-reads the cached body on 304.
+    // A 200 body is parsed straight from the response stream while being copied to the cache.
+    private String fetch(String source, String url, FeedReader reader) throws IOException, InterruptedException {
+        UpdateFetchEvent jfr = new UpdateFetchEvent();
+        jfr.begin();
+        jfr.source = source;
+        try {
+            return fetch(source, url, reader, jfr);
+        } catch (IOException | InterruptedException | RuntimeException ex) {
+            jfr.error = ex.toString();
+            throw ex;
+        } finally {
+            jfr.commit();
         }
-        return false;
     }
 
-    private String fetch(String url) throws Exception {
-        HttpClient client = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
-        HttpRequest req = HttpRequest.newBuilder(URI.create(url))
+    private String fetch(String source, String url, FeedReader reader, UpdateFetchEvent jfr) throws IOException, InterruptedException {
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create(url))
                 .timeout(TIMEOUT)
-                .header("User-Agent", "UnderwaterTrees/" + getLocalVersion())
-                .GET().build();
-        HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
-        if (resp.statusCode() >= 200 && resp.statusCode() < 300) return resp.body();
-        return null;
+                .header("User-Agent", "UnderwaterTrees/" + host.localVersion())
+                .GET();
+        boolean haveBody = cache.hasBody(source);
+        if (haveBody) {
+            String etag = cache.etag(source);
+            String lastModified = cache.lastModified(source);
+            if (etag != null) req.header("If-None-Match", etag);
+            if (lastModified != null) req.header("If-Modified-Since", lastModified);
+        }
+        HttpResponse<InputStream> resp = client.send(req.build(), HttpResponse.BodyHandlers.ofInputStream());
+        int status = resp.statusCode();
+        jfr.status = status;
+        try (InputStream body = resp.body()) {
+            if (status == 304 && haveBody) {
+                try (InputStream cached = cache.openBody(source)) {
+                    if (cached != null) return reader.read(new InputStreamReader(cached, StandardCharsets.UTF_8));
+                }
+            }
+            if (status < 200 || status >= 300) {
+                throw new IOException("HTTP " + status + " from " + source);
+            }
+            String match;
+            ByteArrayOutputStream copy = new ByteArrayOutputStream(16 * 1024);
+            try (TeeInputStream tee = new TeeInputStream(body, copy)) {
+                match = reader.read(new InputStreamReader(tee, StandardCharsets.UTF_8));
+                // Parsing stopped at the first match; copy the rest for the next 304 without parsing it
+                tee.transferTo(OutputStream.nullOutputStream());
+                jfr.bytes = tee.bytes;
+            }
+            cache.storeBody(source, copy.toByteArray());
+            cache.storeValidators(source,
+                    resp.headers().firstValue("ETag").orElse(null),
+                    resp.headers().firstValue("Last-Modified").orElse(null));
+            return match;
+        }
     }
 
-    private String extractAny(String text, List<String> prefixes) {
-        for (String pref : prefixes) {
-            int i = text.indexOf(pref);
-            if (i >= 0) {
-                int s = i + pref.length();
-                int e = text.indexOf('"', s);
-                if (e > s) return text.substring(s, e);
+    // Copies everything read from the response for the body cache
+    private static final class TeeInputStream extends FilterInputStream {
+        private final OutputStream copy;
+        private long bytes;
+
+        TeeInputStream(InputStream in, OutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                copy.write(b);
+                bytes++;
             }
+            return b;
         }
-        return null;
-    }
 
-    private String getLocalVersion() {
-        try {
-            String v = plugin.getPluginMeta().getVersion();
-            return v != null ? v : "0.0.0";
-        } catch (Throwable t) {
-            String v = plugin.getDescription().getVersion();
-            return v != null ? v : "0.0.0";
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) {
+                copy.write(buf, off, n);
+                bytes += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Route skips through read() so the copy stays complete
+            byte[] buf = new byte[(int) Math.min(n, 8192)];
+            int r = read(buf, 0, buf.length);
+            return Math.max(r, 0);
         }
     }
 
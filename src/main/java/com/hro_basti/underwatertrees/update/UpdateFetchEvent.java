@@ -0,0 +1,33 @@
+package com.hro_basti.underwatertrees.update;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR: one HTTP request to a version feed, from send to the last body byte
+@Name("underwatertrees.UpdateFetch")
+@Label("Update Feed Fetch")
+@Category("UnderwaterTrees")
+@Description("Version feed request made by the update checker")
+@StackTrace(false)
+final class UpdateFetchEvent extends Event {
+
+    @Label("Source")
+    String source;
+
+    @Label("Status")
+    @Description("HTTP status, 0 if no response arrived")
+    int status;
+
+    @Label("Bytes")
+    @Description("Response body bytes read from the network")
+    @DataAmount
+    long bytes;
+
+    @Label("Error")
+    String error;
+}
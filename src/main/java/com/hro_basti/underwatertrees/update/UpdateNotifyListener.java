@@ -0,0 +1,38 @@
+package com.hro_basti.underwatertrees.update;
+
+import com.hro_basti.underwatertrees.Plugin;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+import java.util.Map;
+
+// Tells operators about a newer release when they join; reads the checker's last result only
+public class UpdateNotifyListener implements Listener {
+
+    private final Plugin plugin;
+
+    public UpdateNotifyListener(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        if (!plugin.getConfig().getBoolean("notify-op-join", true)) return;
+        UpdateChecker checker = plugin.getUpdateChecker();
+        if (checker == null || !checker.isUpdateAvailable()) return;
+        Player p = event.getPlayer();
+        if (!(p.isOp() || p.hasPermission("underwatertrees.update"))) return;
+        String local = plugin.getDescription().getVersion();
+        String remote = checker.getRemoteVersion();
+        String url = checker.getRemoteUrl();
+        p.sendMessage(plugin.getMessages().component(p, "update.available", Map.of("remote", remote, "local", local),
+                NamedTextColor.YELLOW));
+        if (url != null && !url.isEmpty()) {
+            p.sendMessage(plugin.getMessages().component(p, "update.link", Map.of("url", url), NamedTextColor.GRAY));
+        }
+    }
+}
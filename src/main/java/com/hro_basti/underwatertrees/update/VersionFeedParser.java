@@ -0,0 +1,175 @@
+package com.hro_basti.underwatertrees.update;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Locale;
+
+// Streaming readers for the Modrinth and Hangar version lists. Entries are read one at a time with
+// Gson's pull parser (bundled with the Paper API); fields we do not need are skipped without being
+// materialised, and reading stops at the first entry that passes the filters.
+public final class VersionFeedParser {
+
+    private VersionFeedParser() {
+    }
+
+    // Filters applied to each entry; mcPrefix is major.minor of the server version (e.g. 1.21)
+    public record Filter(boolean includePre, boolean filterByMc, String mc, String mcPrefix) {
+    }
+
+    // Modrinth: [ { "version_number": "...", "version_type": "release", "loaders": [...], "game_versions": [...] }, ... ]
+    public static String firstModrinthMatch(Reader in, Filter f) throws IOException {
+        JsonReader r = new JsonReader(in);
+        if (r.peek() != JsonToken.BEGIN_ARRAY) return null;
+        r.beginArray();
+        while (r.hasNext()) {
+            if (r.peek() != JsonToken.BEGIN_OBJECT) {
+                r.skipValue();
+                continue;
+            }
+            String version = null;
+            String type = null;
+            boolean paper = false;
+            boolean mcMatch = !f.filterByMc();
+            r.beginObject();
+            while (r.hasNext()) {
+                switch (r.nextName()) {
+                    case "version_number" -> version = nextStringOrNull(r);
+                    case "version_type" -> type = nextStringOrNull(r);
+                    case "loaders" -> paper = anyString(r, null, "paper");
+                    case "game_versions" -> {
+                        if (f.filterByMc()) {
+                            mcMatch = anyString(r, f, null);
+                        } else {
+                            r.skipValue();
+                        }
+                    }
+                    default -> r.skipValue();
+                }
+            }
+            r.endObject();
+            if (version == null || !paper || !mcMatch) continue;
+            if (!f.includePre() && type != null && !type.equalsIgnoreCase("release")) continue;
+            return version;
+        }
+        return null;
+    }
+
+    // Hangar: { "pagination": {...}, "result": [ { "name": "...", "channel": { "name": "Release" },
+    //           "platformDependencies": { "PAPER": ["1.21", ...] } }, ... ] }
+    public static String firstHangarMatch(Reader in, Filter f) throws IOException {
+        JsonReader r = new JsonReader(in);
+        if (r.peek() != JsonToken.BEGIN_OBJECT) return null;
+        r.beginObject();
+        while (r.hasNext()) {
+            if (!r.nextName().equals("result") || r.peek() != JsonToken.BEGIN_ARRAY) {
+                r.skipValue();
+                continue;
+            }
+            r.beginArray();
+            while (r.hasNext()) {
+                if (r.peek() != JsonToken.BEGIN_OBJECT) {
+                    r.skipValue();
+                    continue;
+                }
+                String version = null;
+                String channel = null;
+                boolean paper = false;
+                boolean mcMatch = !f.filterByMc();
+                r.beginObject();
+                while (r.hasNext()) {
+                    switch (r.nextName()) {
+                        case "name" -> version = nextStringOrNull(r);
+                        case "channel" -> channel = objectField(r, "name");
+                        case "platformDependencies" -> {
+                            int deps = paperDependencies(r, f);
+                            paper = deps > 0;
+                            if (f.filterByMc()) mcMatch = deps > 1;
+                        }
+                        default -> r.skipValue();
+                    }
+                }
+                r.endObject();
+                if (version == null || !paper || !mcMatch) continue;
+                if (!f.includePre() && (channel == null || !channel.equalsIgnoreCase("release"))) continue;
+                return version;
+            }
+            return null;
+        }
+        return null;
+    }
+
+    private static String nextStringOrNull(JsonReader r) throws IOException {
+        if (r.peek() == JsonToken.STRING) return r.nextString();
+        r.skipValue();
+        return null;
+    }
+
+    // Reads one string field of a nested object, skipping everything else
+    private static String objectField(JsonReader r, String field) throws IOException {
+        if (r.peek() != JsonToken.BEGIN_OBJECT) {
+            r.skipValue();
+            return null;
+        }
+        String out = null;
+        r.beginObject();
+        while (r.hasNext()) {
+            if (r.nextName().equals(field)) {
+                out = nextStringOrNull(r);
+            } else {
+                r.skipValue();
+            }
+        }
+        r.endObject();
+        return out;
+    }
+
+    // True if any string in the array equals literal (case-insensitive) or, with a filter, matches the server version
+    private static boolean anyString(JsonReader r, Filter f, String literal) throws IOException {
+        if (r.peek() != JsonToken.BEGIN_ARRAY) {
+            r.skipValue();
+            return false;
+        }
+        boolean found = false;
+        r.beginArray();
+        while (r.hasNext()) {
+            if (found || r.peek() != JsonToken.STRING) {
+                r.skipValue();
+                continue;
+            }
+            String s = r.nextString();
+            found = literal != null ? s.equalsIgnoreCase(literal) : matchesMc(s, f);
+        }
+        r.endArray();
+        return found;
+    }
+
+    // 0 = no PAPER platform, 1 = PAPER without a matching version, 2 = PAPER with a matching version
+    private static int paperDependencies(JsonReader r, Filter f) throws IOException {
+        if (r.peek() != JsonToken.BEGIN_OBJECT) {
+            r.skipValue();
+            return 0;
+        }
+        int result = 0;
+        r.beginObject();
+        while (r.hasNext()) {
+            if (r.nextName().toUpperCase(Locale.ROOT).equals("PAPER")) {
+                result = anyString(r, f, null) ? 2 : 1;
+            } else {
+                r.skipValue();
+            }
+        }
+        r.endObject();
+        return result;
+    }
+
+    // Exact server version or same major.minor (also covers ranges like "1.21-1.21.4")
+    static boolean matchesMc(String gameVersion, Filter f) {
+        return gameVersion.equals(f.mc())
+                || gameVersion.equals(f.mcPrefix())
+                || gameVersion.startsWith(f.mcPrefix() + ".")
+                || gameVersion.startsWith(f.mcPrefix() + "-");
+    }
+}
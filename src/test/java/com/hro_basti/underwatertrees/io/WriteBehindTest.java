@@ -0,0 +1,188 @@
+package com.hro_basti.underwatertrees.io;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindTest {
+
+    private static final Path CONFIG = Path.of("data", "config.yml");
+    private static final Path LANG = Path.of("data", "lang", "en_US.yml");
+
+    private final SlowStorage store = new SlowStorage();
+    private final WriteBehind writer = WriteBehind.start(store, Logger.getLogger("WriteBehindTest"));
+
+    @AfterEach
+    void tearDown() {
+        store.open();
+        writer.close();
+    }
+
+    @Test
+    void writesQueuedBehindASlowWriteCoalesce() throws Exception {
+        writer.write(CONFIG, bytes("v1"));
+        // The writer thread is now stuck in the first write of v1
+        assertTrue(store.entered.await(5, TimeUnit.SECONDS));
+        writer.write(CONFIG, bytes("v2"));
+        writer.write(CONFIG, bytes("v3"));
+        writer.write(CONFIG, bytes("v4"));
+        assertEquals(1, writer.getPendingCount());
+
+        store.open();
+        assertTrue(writer.flush(5, TimeUnit.SECONDS));
+        assertArrayEquals(bytes("v4"), store.files.get(CONFIG));
+        // v1 (already in progress) and v4; v2 and v3 never reached the store
+        assertEquals(List.of("write config.yml.tmp v1", "replace config.yml", "write config.yml.tmp v4", "replace config.yml"),
+                store.log());
+        assertEquals(2, writer.getCoalescedCount());
+        assertEquals(2, writer.getWrittenCount());
+    }
+
+    @Test
+    void closeFlushesEverythingInFirstRequestOrder() throws Exception {
+        writer.write(CONFIG, bytes("a"));
+        assertTrue(store.entered.await(5, TimeUnit.SECONDS));
+        // Queued behind "a": the language file first, then config.yml again
+        writer.write(LANG, bytes("b"));
+        writer.write(CONFIG, bytes("c"));
+        writer.write(LANG, bytes("d"));
+        store.open();
+        writer.close();
+
+        assertEquals(0, writer.getPendingCount());
+        assertArrayEquals(bytes("c"), store.files.get(CONFIG));
+        assertArrayEquals(bytes("d"), store.files.get(LANG));
+        assertEquals(List.of("replace config.yml", "replace en_US.yml", "replace config.yml"),
+                store.log().stream().filter(op -> op.startsWith("replace")).toList());
+    }
+
+    @Test
+    void writesAfterCloseHappenInline() {
+        store.open();
+        writer.close();
+        writer.write(CONFIG, bytes("late"));
+        assertArrayEquals(bytes("late"), store.files.get(CONFIG));
+    }
+
+    @Test
+    void targetOnlyChangesByRenameAndNoTempFileRemains() throws Exception {
+        store.open();
+        writer.write(CONFIG, bytes("x"));
+        assertTrue(writer.flush(5, TimeUnit.SECONDS));
+        assertNull(store.files.get(CONFIG.resolveSibling("config.yml.tmp")));
+        for (String op : store.log()) {
+            assertFalse(op.startsWith("write config.yml "), "target written in place: " + op);
+        }
+    }
+
+    @Test
+    void writeIfAbsentKeepsExistingAndQueuedContent() throws Exception {
+        store.open();
+        store.files.put(LANG, bytes("edited"));
+        writer.writeIfAbsent(LANG, bytes("bundled"));
+        assertTrue(writer.flush(5, TimeUnit.SECONDS));
+        assertArrayEquals(bytes("edited"), store.files.get(LANG));
+
+        store.close();
+        writer.write(CONFIG, bytes("first"));
+        assertTrue(store.entered.await(5, TimeUnit.SECONDS));
+        writer.write(CONFIG, bytes("saved"));
+        writer.writeIfAbsent(CONFIG, bytes("bundled"));
+        store.open();
+        assertTrue(writer.flush(5, TimeUnit.SECONDS));
+        assertArrayEquals(bytes("saved"), store.files.get(CONFIG));
+    }
+
+    @Test
+    void failedWriteIsCountedAndDoesNotStopTheQueue() throws Exception {
+        store.open();
+        store.failNextReplace = true;
+        writer.write(CONFIG, bytes("lost"));
+        writer.write(LANG, bytes("kept"));
+        assertTrue(writer.flush(5, TimeUnit.SECONDS));
+        assertEquals(1, writer.getFailedCount());
+        assertArrayEquals(bytes("kept"), store.files.get(LANG));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // In-memory stand-in for a slow mount: writes block until the test opens the gate, so what is
+    // queued behind an in-progress write is under the test's control. Logs every operation.
+    private static final class SlowStorage implements Storage {
+        final Map<Path, byte[]> files = new ConcurrentHashMap<>();
+        final List<String> ops = Collections.synchronizedList(new ArrayList<>());
+        volatile CountDownLatch entered = new CountDownLatch(1);
+        private volatile CountDownLatch gate = new CountDownLatch(1);
+        volatile boolean failNextReplace;
+
+        void open() {
+            gate.countDown();
+        }
+
+        void close() {
+            entered = new CountDownLatch(1);
+            gate = new CountDownLatch(1);
+        }
+
+        List<String> log() {
+            synchronized (ops) {
+                return ops.stream().filter(op -> !op.startsWith("mkdirs")).toList();
+            }
+        }
+
+        @Override
+        public boolean exists(Path file) {
+            return files.containsKey(file);
+        }
+
+        @Override
+        public void createDirectories(Path dir) {
+            ops.add("mkdirs " + dir);
+        }
+
+        @Override
+        public void write(Path file, byte[] content) throws IOException {
+            entered.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException ex) {
+                throw new IOException(ex);
+            }
+            files.put(file, content.clone());
+            ops.add("write " + file.getFileName() + " " + new String(content, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void replace(Path source, Path target) throws IOException {
+            if (failNextReplace) {
+                failNextReplace = false;
+                files.remove(source);
+                throw new IOException("disk full");
+            }
+            byte[] content = files.remove(source);
+            if (content == null) throw new NoSuchFileException(source.toString());
+            files.put(target, content);
+            ops.add("replace " + target.getFileName());
+        }
+    }
+}
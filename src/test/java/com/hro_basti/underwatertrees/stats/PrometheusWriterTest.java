@@ -0,0 +1,143 @@
+package com.hro_basti.underwatertrees.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrometheusWriterTest {
+
+    private static final String LATENCY = "underwatertrees_handler_latency_seconds";
+
+    private static HandlerStats knownStats() {
+        HandlerStats s = new HandlerStats();
+        s.recordPlaced(100);
+        s.recordPlaced(1_000);
+        s.recordRejected(HandlerStats.Rejection.CHUNK_LIMIT, 5_000);
+        s.recordPhysics(true, 50);
+        s.recordPhysics(false, 2_000_000_000L);
+        s.tick();
+        return s;
+    }
+
+    private static List<String> render(HandlerStats s) {
+        PrometheusWriter w = new PrometheusWriter();
+        s.writeTo(w);
+        return w.toString().lines().toList();
+    }
+
+    @Test
+    void countersCarryHelpAndTypeOnce() {
+        List<String> lines = render(knownStats());
+        assertEquals("# HELP underwatertrees_placements_total Saplings placed underwater by players and dispensers.",
+                lines.get(0));
+        assertEquals("# TYPE underwatertrees_placements_total counter", lines.get(1));
+        assertEquals("underwatertrees_placements_total 2", lines.get(2));
+        assertEquals("1", value(lines, "underwatertrees_placements_rejected_total{reason=\"chunk_limit\"}"));
+        assertEquals("0", value(lines, "underwatertrees_placements_rejected_total{reason=\"region_limit\"}"));
+        assertEquals("1", value(lines, "underwatertrees_ticks_total"));
+        for (String family : List.of("underwatertrees_placements_rejected_total", LATENCY)) {
+            assertEquals(1, lines.stream().filter(l -> l.startsWith("# HELP " + family + " ")).count(), family);
+            assertEquals(1, lines.stream().filter(l -> l.startsWith("# TYPE " + family + " ")).count(), family);
+        }
+        assertTrue(lines.contains("# TYPE " + LATENCY + " histogram"));
+    }
+
+    @Test
+    void histogramBucketsAreCumulativeWithSumAndCount() {
+        List<String> lines = render(knownStats());
+        // place: 100 ns, 1 us, 5 us (the rejection is timed as a placement too)
+        assertEquals("0", bucket(lines, "place", "6.4E-8"));
+        assertEquals("1", bucket(lines, "place", "1.28E-7"));
+        assertEquals("1", bucket(lines, "place", "5.12E-7"));
+        assertEquals("2", bucket(lines, "place", "1.024E-6"));
+        assertEquals("2", bucket(lines, "place", "4.096E-6"));
+        assertEquals("3", bucket(lines, "place", "8.192E-6"));
+        assertEquals("3", bucket(lines, "place", "1.073741824"));
+        assertEquals("3", bucket(lines, "place", "+Inf"));
+        assertEquals(6.1e-6, Double.parseDouble(value(lines, LATENCY + "_sum{handler=\"place\"}")), 1e-15);
+        assertEquals("3", value(lines, LATENCY + "_count{handler=\"place\"}"));
+
+        // physics: 50 ns lands in the first bucket, 2 s only in +Inf
+        assertEquals("1", bucket(lines, "physics", "6.4E-8"));
+        assertEquals("1", bucket(lines, "physics", "1.073741824"));
+        assertEquals("2", bucket(lines, "physics", "+Inf"));
+        assertEquals(2.00000005, Double.parseDouble(value(lines, LATENCY + "_sum{handler=\"physics\"}")), 1e-12);
+        assertEquals("2", value(lines, LATENCY + "_count{handler=\"physics\"}"));
+
+        // Empty histograms still expose every series
+        assertEquals("0", bucket(lines, "reload", "+Inf"));
+        assertEquals("0", value(lines, LATENCY + "_sum{handler=\"reload\"}"));
+        assertEquals("0", value(lines, LATENCY + "_count{handler=\"reload\"}"));
+    }
+
+    @Test
+    void bucketBoundsArePowersOfTwoInIncreasingOrder() {
+        List<String> buckets = render(knownStats()).stream()
+                .filter(l -> l.startsWith(LATENCY + "_bucket{handler=\"place\","))
+                .toList();
+        // 64 ns .. 2^30 ns, plus +Inf
+        assertEquals(26, buckets.size());
+        double previousLe = 0;
+        long previousCount = 0;
+        for (String line : buckets) {
+            String le = line.substring(line.indexOf("le=\"") + 4, line.indexOf("\"}"));
+            long count = Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+            double bound = le.equals("+Inf") ? Double.POSITIVE_INFINITY : Double.parseDouble(le);
+            assertTrue(bound > previousLe, line);
+            assertTrue(count >= previousCount, line);
+            if (!le.equals("+Inf")) assertEquals(1, Long.bitCount(Math.round(bound * 1e9)), line);
+            previousLe = bound;
+            previousCount = count;
+        }
+    }
+
+    @Test
+    void exporterServesTheLastRefresh() throws Exception {
+        HandlerStats stats = knownStats();
+        PrometheusExporter exporter = new PrometheusExporter(Logger.getLogger("PrometheusWriterTest"), "127.0.0.1", 0, stats::writeTo);
+        exporter.start();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            URI uri = URI.create("http://127.0.0.1:" + exporter.getPort() + "/metrics");
+            HttpResponse<String> before = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, before.statusCode());
+            assertEquals("# no snapshot yet\n", before.body());
+
+            exporter.refresh();
+            HttpResponse<String> after = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(PrometheusExporter.CONTENT_TYPE, after.headers().firstValue("Content-Type").orElse(null));
+            assertEquals(String.join("\n", render(stats)) + "\n", after.body());
+
+            HttpResponse<String> post = client.send(HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(405, post.statusCode());
+        } finally {
+            exporter.stop();
+        }
+    }
+
+    private static String bucket(List<String> lines, String handler, String le) {
+        return value(lines, LATENCY + "_bucket{handler=\"" + handler + "\",le=\"" + le + "\"}");
+    }
+
+    private static String value(List<String> lines, String series) {
+        String value = null;
+        for (String l : lines) {
+            if (l.startsWith(series + " ")) {
+                assertNull(value, "duplicate series " + series);
+                value = l.substring(series.length() + 1);
+            }
+        }
+        assertNotNull(value, "missing series " + series);
+        return value;
+    }
+}
@@ -0,0 +1,220 @@
+package com.hro_basti.underwatertrees.update;
+
+import com.hro_basti.underwatertrees.io.Storage;
+import com.hro_basti.underwatertrees.io.WriteBehind;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpdateCheckerTest {
+
+    private static final String FEED = """
+            [{"version_number": "1.2.0", "version_type": "release", "loaders": ["paper"], "game_versions": ["1.21.1"]},
+             {"version_number": "1.1.0", "version_type": "release", "loaders": ["paper"], "game_versions": ["1.21.1"]}]
+            """;
+    private static final String ETAG = "\"feed-1\"";
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    @TempDir
+    Path dir;
+
+    private final MutableClock clock = new MutableClock(1_700_000_000_000L);
+    private final Logger logger = Logger.getLogger("UpdateCheckerTest");
+    private final WriteBehind writer = WriteBehind.direct(Storage.DISK, logger);
+    private final YamlConfiguration config = new YamlConfiguration();
+    private HttpServer server;
+    // Status codes the stub answers with, in order; a 200 carries FEED and ETAG
+    private final Deque<Integer> responses = new ArrayDeque<>();
+    private final List<String> ifNoneMatch = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() throws Exception {
+        config.loadFromString("update-check: true\nupdate-sources: 1\nupdate-interval-hours: 24\n");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/project/underwatertrees/version", this::serve);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        ifNoneMatch.add(exchange.getRequestHeaders().getFirst("If-None-Match"));
+        Integer status = responses.poll();
+        if (status == null) status = 500;
+        if (status == 200) {
+            byte[] body = FEED.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("ETag", ETAG);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } else {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        }
+    }
+
+    private UpdateChecker checker() {
+        String api = "http://127.0.0.1:" + server.getAddress().getPort();
+        UpdateChecker.Host host = new UpdateChecker.Host(logger, () -> config, Runnable::run, writer, "1.0.0", "1.21.1");
+        return new UpdateChecker(host, api, api, dir.resolve("cache"), clock);
+    }
+
+    private UpdateCache savedCache() {
+        UpdateCache cache = new UpdateCache(dir.resolve("cache"), writer);
+        cache.load();
+        return cache;
+    }
+
+    @Test
+    void conditionalRequestReusesTheCachedBody() throws Exception {
+        try (UpdateChecker checker = checker()) {
+            responses.add(200);
+            UpdateChecker.Result first = checker.check(false).get(5, TimeUnit.SECONDS);
+            assertTrue(first.updateAvailable());
+            assertEquals("1.2.0", first.version());
+            assertEquals(1, ifNoneMatch.size());
+            assertNull(ifNoneMatch.get(0));
+
+            // Within the interval the stored answer is used without a request
+            clock.advance(HOUR);
+            assertEquals(first, checker.check(false).get(5, TimeUnit.SECONDS));
+            assertEquals(1, ifNoneMatch.size());
+
+            // After it the validator goes out and the 304 is answered from the body kept in memory
+            clock.advance(24 * HOUR);
+            responses.add(304);
+            UpdateChecker.Result second = checker.check(false).get(5, TimeUnit.SECONDS);
+            assertEquals(ETAG, ifNoneMatch.get(1));
+            assertEquals("1.2.0", second.version());
+            assertEquals(clock.millis(), second.checkedAt());
+        }
+
+        // After a restart the body comes from the cache directory
+        try (UpdateChecker restarted = checker()) {
+            responses.add(304);
+            UpdateChecker.Result third = restarted.check(true).get(5, TimeUnit.SECONDS);
+            assertEquals(ETAG, ifNoneMatch.get(2));
+            assertEquals("1.2.0", third.version());
+            assertEquals(3, ifNoneMatch.size());
+        }
+    }
+
+    @Test
+    void serverErrorsBackOffExponentiallyAndSuccessResets() throws Exception {
+        try (UpdateChecker checker = checker()) {
+            responses.add(200);
+            UpdateChecker.Result known = checker.check(true).get(5, TimeUnit.SECONDS);
+
+            clock.advance(24 * HOUR);
+            long failedAt = clock.millis();
+            responses.add(503);
+            // The last good answer is kept through the failure
+            assertEquals(known, checker.check(false).get(5, TimeUnit.SECONDS));
+            assertEquals(1, savedCache().failures());
+            long next = savedCache().nextAttemptAt();
+            assertBetween(failedAt + MINUTE / 2, failedAt + MINUTE, next);
+
+            // No request until the backoff has passed
+            clock.set(next - 1);
+            checker.check(false).get(5, TimeUnit.SECONDS);
+            assertEquals(2, ifNoneMatch.size());
+
+            clock.set(next);
+            failedAt = clock.millis();
+            responses.add(502);
+            checker.check(false).get(5, TimeUnit.SECONDS);
+            assertEquals(3, ifNoneMatch.size());
+            assertEquals(2, savedCache().failures());
+            assertBetween(failedAt + MINUTE, failedAt + 2 * MINUTE, savedCache().nextAttemptAt());
+
+            clock.set(savedCache().nextAttemptAt());
+            responses.add(304);
+            assertEquals("1.2.0", checker.check(false).get(5, TimeUnit.SECONDS).version());
+            assertEquals(0, savedCache().failures());
+            assertEquals(0L, savedCache().nextAttemptAt());
+        }
+    }
+
+    @Test
+    void backoffDelayDoublesUpToTheCap() {
+        for (int i = 0; i < 100; i++) {
+            assertBetween(30_000L, 60_000L, UpdateChecker.backoffDelay(1));
+            assertBetween(60_000L, 120_000L, UpdateChecker.backoffDelay(2));
+            assertBetween(240_000L, 480_000L, UpdateChecker.backoffDelay(4));
+            assertBetween(3 * HOUR, 6 * HOUR, UpdateChecker.backoffDelay(30));
+            assertBetween(3 * HOUR, 6 * HOUR, UpdateChecker.backoffDelay(Integer.MAX_VALUE));
+        }
+    }
+
+    private static void assertBetween(long min, long max, long actual) {
+        assertTrue(actual >= min && actual <= max, actual + " not in [" + min + ", " + max + "]");
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        void advance(long ms) {
+            millis += ms;
+        }
+
+        void set(long ms) {
+            millis = ms;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}